@@ -1,5 +1,8 @@
 package dev.spaxter.lynxlib;
 
+import dev.spaxter.lynxlib.command.MenuStatsCommand;
+import dev.spaxter.lynxlib.command.SchedulerStatsCommand;
+import dev.spaxter.lynxlib.menu.MenuManager;
 import dev.spaxter.lynxlib.task.TaskScheduler;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -17,5 +20,16 @@ public class LynxLib {
 
     public static void registerEvents(IEventBus eventBus) {
         eventBus.register(TaskScheduler.class);
+        eventBus.register(MenuManager.class);
+    }
+
+    /**
+     * Register the library's admin commands, such as {@code /lynxtasks}.
+     *
+     * @param eventBus The Forge event bus
+     */
+    public static void registerCommands(IEventBus eventBus) {
+        eventBus.register(new SchedulerStatsCommand());
+        eventBus.register(new MenuStatsCommand());
     }
 }
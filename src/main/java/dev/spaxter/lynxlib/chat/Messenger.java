@@ -1,34 +1,193 @@
 package dev.spaxter.lynxlib.chat;
 
+import dev.spaxter.lynxlib.LynxLib;
 import dev.spaxter.lynxlib.common.ColoredTextComponent;
+import dev.spaxter.lynxlib.common.LruCache;
 import io.netty.handler.logging.LogLevel;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import javax.annotation.Nullable;
 
 import net.minecraft.command.CommandSource;
 import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.util.text.ITextComponent;
 import net.minecraft.util.text.TextComponent;
 
 /**
  * Util class for messaging players.
+ *
+ * <p>Debug messages are cheap to skip: whether a context class logs debug messages is resolved once per class and
+ * cached until a log level changes. Use the {@link Supplier} or parameterized variants of {@code debug} on hot paths,
+ * so the message is only built when it is sent.
  */
 public class Messenger {
 
-    public static void setLogLevel(LogLevel level) {
+    /**
+     * Where debug messages go.
+     */
+    public enum DebugTarget {
+        /** Chat of the player passed to debug(). */
+        CHAT,
+        /** The mod log at debug level, also for debug messages without a player. */
+        LOG
+    }
+
+    /**
+     * Set the global log level, used by context classes without a level of their own.
+     *
+     * @param level The log level
+     */
+    public static synchronized void setLogLevel(LogLevel level) {
         logLevel = level;
+        levelGeneration++;
+    }
+
+    /**
+     * Set the log level of a context class and its subclasses, overriding the global log level.
+     *
+     * @param context The class messages are sent from
+     * @param level   The log level, or {@code null} to use the global log level again
+     */
+    public static synchronized void setLogLevel(Class<?> context, @Nullable LogLevel level) {
+        if (level == null) {
+            contextLevels.remove(context);
+        } else {
+            contextLevels.put(context, level);
+        }
+        levelGeneration++;
+    }
+
+    /**
+     * Set where debug messages go.
+     *
+     * @param target The debug target, chat by default
+     */
+    public static void setDebugTarget(DebugTarget target) {
+        debugTarget = target;
+    }
+
+    /**
+     * Check if debug messages from a context class are sent.
+     *
+     * @param context The class messages are sent from
+     * @return {@code true} if the log level of the class is debug or lower
+     */
+    public static boolean isDebugEnabled(Class<?> context) {
+        return debugContexts.get(context).isEnabled();
     }
 
     public static void setPrefix(String prefix) {
         INFO_PREFIX = prefix;
     }
 
-    private static LogLevel logLevel = LogLevel.INFO;
+    private static volatile LogLevel logLevel = LogLevel.INFO;
+    private static final Map<Class<?>, LogLevel> contextLevels = new ConcurrentHashMap<>();
+    private static volatile int levelGeneration;
+    private static volatile DebugTarget debugTarget = DebugTarget.CHAT;
     private static final String DEBUG_PREFIX = "&8[&bDebug&8]&r";
     private static final String ERROR_PREFIX = "&8[&4Error&8]&r";
     private static String INFO_PREFIX = "&7[&bInfo&7]&r";
     private static final String CONTEXT_PREFIX = "&8[&7%context%&8]&r";
+    private static final char COLOR_CHAR = '\u00a7';
+    private static final LruCache<String, ITextComponent> components = new LruCache<>(256);
+    private static final ClassValue<DebugContext> debugContexts = new ClassValue<DebugContext>() {
+        @Override
+        protected DebugContext computeValue(Class<?> type) {
+            return new DebugContext(type);
+        }
+    };
 
+    /**
+     * Prefixes and resolved debug state of a context class.
+     */
+    private static final class DebugContext {
+        final Class<?> type;
+        final String contextPrefix;
+        final String debugPrefix;
+        final String logPrefix;
+        volatile int generation = -1;
+        boolean enabled;
+
+        DebugContext(Class<?> type) {
+            this.type = type;
+            this.contextPrefix = CONTEXT_PREFIX.replace("%context%", type.getSimpleName());
+            this.debugPrefix = DEBUG_PREFIX + " " + this.contextPrefix + " &7";
+            this.logPrefix = "[" + type.getSimpleName() + "] ";
+        }
+
+        boolean isEnabled() {
+            int currentGeneration = levelGeneration;
+            if (this.generation != currentGeneration) {
+                this.enabled = resolveLogLevel(this.type).compareTo(LogLevel.DEBUG) <= 0;
+                this.generation = currentGeneration;
+            }
+            return this.enabled;
+        }
+    }
+
+    /**
+     * Translate {@code &} color and format codes, e.g. {@code &e}, to the section sign codes used by the game. Works
+     * in a single pass and returns the message itself if it has no codes.
+     *
+     * @param message The message to translate
+     * @return The translated message
+     */
     public static String translateColorCodes(String message) {
-        return message.replaceAll("&([0-9a-fk-or])", "§$1");
+        char[] chars = null;
+        int index = message.indexOf('&');
+        while (index >= 0 && index < message.length() - 1) {
+            if (isColorCode(message.charAt(index + 1))) {
+                if (chars == null) {
+                    chars = message.toCharArray();
+                }
+                chars[index] = COLOR_CHAR;
+                // The code character can not start another code
+                index++;
+            }
+            index = message.indexOf('&', index + 1);
+        }
+        return chars == null ? message : new String(chars);
+    }
+
+    /**
+     * Get a colored text component for a frequently repeated text, such as a prefix or a menu title. The components of
+     * recently used texts are cached and shared, so the returned component must not be modified.
+     *
+     * @param text The text, with {@code &} color codes
+     * @return The shared component
+     */
+    public static ITextComponent component(String text) {
+        return components.get(text, ColoredTextComponent::new);
+    }
+
+    /**
+     * Remove {@code &} color and format codes from a message.
+     *
+     * @param message The message
+     * @return The message without codes
+     */
+    public static String stripColorCodes(String message) {
+        int index = message.indexOf('&');
+        if (index < 0) {
+            return message;
+        }
+
+        StringBuilder builder = new StringBuilder(message.length());
+        int start = 0;
+        while (index >= 0 && index < message.length() - 1) {
+            if (isColorCode(message.charAt(index + 1))) {
+                builder.append(message, start, index);
+                start = index + 2;
+                index++;
+            }
+            index = message.indexOf('&', index + 1);
+        }
+        return builder.append(message, start, message.length()).toString();
+    }
+
+    private static boolean isColorCode(char code) {
+        return code >= '0' && code <= '9' || code >= 'a' && code <= 'f' || code >= 'k' && code <= 'o' || code == 'r';
     }
 
     private static TextComponent formatMessage(String message) {
@@ -43,13 +202,104 @@ public class Messenger {
      * @param context The class the message was sent from
      */
     public static void debug(final @Nullable PlayerEntity player, final String message, Class<?> context) {
-        if (logLevel.compareTo(LogLevel.DEBUG) <= 0) {
-            if (player != null) {
-                String prefix = DEBUG_PREFIX + " " + CONTEXT_PREFIX.replace("%context%", context.getSimpleName());
-                TextComponent chatMessage = formatMessage(prefix + " &7" + message);
-                player.sendMessage(chatMessage, player.getUUID());
+        DebugContext debugContext = debugContexts.get(context);
+        if (debugContext.isEnabled() && hasDebugTarget(player)) {
+            sendDebug(player, message, debugContext);
+        }
+    }
+
+    /**
+     * Send a debug message to a player. The message is only built if it is sent.
+     *
+     * @param player  The player to message
+     * @param message Supplies the message to send
+     * @param context The class the message was sent from
+     */
+    public static void debug(final @Nullable PlayerEntity player, final Supplier<String> message,
+        Class<?> context) {
+        DebugContext debugContext = debugContexts.get(context);
+        if (debugContext.isEnabled() && hasDebugTarget(player)) {
+            sendDebug(player, message.get(), debugContext);
+        }
+    }
+
+    /**
+     * Send a debug message to a player. The message is only built if it is sent.
+     *
+     * @param player  The player to message
+     * @param pattern The message to send, with {@code {}} in place of the argument
+     * @param arg     The argument
+     * @param context The class the message was sent from
+     */
+    public static void debug(final @Nullable PlayerEntity player, final String pattern, @Nullable Object arg,
+        Class<?> context) {
+        DebugContext debugContext = debugContexts.get(context);
+        if (debugContext.isEnabled() && hasDebugTarget(player)) {
+            sendDebug(player, format(pattern, arg, null), debugContext);
+        }
+    }
+
+    /**
+     * Send a debug message to a player. The message is only built if it is sent.
+     *
+     * @param player  The player to message
+     * @param pattern The message to send, with {@code {}} in place of each argument
+     * @param arg1    The first argument
+     * @param arg2    The second argument
+     * @param context The class the message was sent from
+     */
+    public static void debug(final @Nullable PlayerEntity player, final String pattern, @Nullable Object arg1,
+        @Nullable Object arg2, Class<?> context) {
+        DebugContext debugContext = debugContexts.get(context);
+        if (debugContext.isEnabled() && hasDebugTarget(player)) {
+            sendDebug(player, format(pattern, arg1, arg2), debugContext);
+        }
+    }
+
+    private static boolean hasDebugTarget(@Nullable PlayerEntity player) {
+        return player != null || debugTarget == DebugTarget.LOG;
+    }
+
+    private static void sendDebug(@Nullable PlayerEntity player, String message, DebugContext debugContext) {
+        if (debugTarget == DebugTarget.LOG) {
+            LynxLib.logger.debug(debugContext.logPrefix + stripColorCodes(message));
+        } else if (player != null) {
+            TextComponent chatMessage = formatMessage(debugContext.debugPrefix + message);
+            player.sendMessage(chatMessage, player.getUUID());
+        }
+    }
+
+    /**
+     * Replace the first two {@code {}} placeholders of a pattern.
+     */
+    private static String format(String pattern, @Nullable Object arg1, @Nullable Object arg2) {
+        int first = pattern.indexOf("{}");
+        if (first < 0) {
+            return pattern;
+        }
+        StringBuilder builder = new StringBuilder(pattern.length() + 16);
+        builder.append(pattern, 0, first).append(arg1);
+        int second = pattern.indexOf("{}", first + 2);
+        if (second < 0) {
+            return builder.append(pattern, first + 2, pattern.length()).toString();
+        }
+        return builder.append(pattern, first + 2, second).append(arg2)
+            .append(pattern, second + 2, pattern.length()).toString();
+    }
+
+    /**
+     * Get the log level of a context class: its own, the closest superclass level or the global level.
+     */
+    private static LogLevel resolveLogLevel(Class<?> context) {
+        if (!contextLevels.isEmpty()) {
+            for (Class<?> type = context; type != null; type = type.getSuperclass()) {
+                LogLevel level = contextLevels.get(type);
+                if (level != null) {
+                    return level;
+                }
             }
         }
+        return logLevel;
     }
 
     /**
@@ -61,8 +311,7 @@ public class Messenger {
      */
     public static void error(final @Nullable PlayerEntity player, final Exception error, Class<?> context) {
         if (player != null) {
-            String prefix =
-                INFO_PREFIX + " " + ERROR_PREFIX + " " + CONTEXT_PREFIX.replace("%context%", context.getSimpleName());
+            String prefix = INFO_PREFIX + " " + ERROR_PREFIX + " " + debugContexts.get(context).contextPrefix;
             TextComponent chatMessage = formatMessage(prefix + " &c" + error.getLocalizedMessage());
             player.sendMessage(chatMessage, player.getUUID());
         }
@@ -0,0 +1,59 @@
+package dev.spaxter.lynxlib.command;
+
+import com.mojang.brigadier.context.CommandContext;
+
+import dev.spaxter.lynxlib.chat.Messenger;
+import dev.spaxter.lynxlib.common.StatsReport;
+import dev.spaxter.lynxlib.menu.MenuManager;
+import dev.spaxter.lynxlib.menu.MenuMetrics;
+import dev.spaxter.lynxlib.menu.MenuStats;
+import net.minecraft.command.CommandSource;
+
+/**
+ * Admin command showing the {@link MenuMetrics} of inventory menus.
+ */
+public class MenuStatsCommand extends CustomCommand {
+    private static final int SLOWEST_MENU_COUNT = 5;
+
+    public MenuStatsCommand() {
+        super("lynxmenus");
+        this.setHelpText("Show inventory menu statistics");
+    }
+
+    @Override
+    public boolean checkPermission(CommandSource source) {
+        return source.hasPermission(2) && super.checkPermission(source);
+    }
+
+    @Override
+    public int execute(CommandContext<CommandSource> context) {
+        StatsReport report = new StatsReport("Inventory menus")
+            .line("Open menus", MenuManager.getOpenMenuCount());
+        if (MenuManager.isPooling()) {
+            report.line("Pooled menus")
+                .stat("idle", MenuMetrics.getPooledMenuCount())
+                .stat("reused", MenuMetrics.getPoolReuseCount());
+        }
+        if (!MenuMetrics.isEnabled()) {
+            report.text("Menu metrics are disabled");
+        }
+        report.line("Slowest menus");
+        for (MenuStats stats : MenuMetrics.getSlowestMenus(SLOWEST_MENU_COUNT)) {
+            report.entry(stats.getMenuClass().getSimpleName())
+                .stat("opens", stats.getOpenCount())
+                .stat("open p50", StatsReport.millis(stats.getOpenPercentileNanos(50)))
+                .stat("p99", StatsReport.millis(stats.getOpenPercentileNanos(99)))
+                .wrap()
+                .stat("clicks", stats.getClickCount())
+                .stat("click avg", StatsReport.millis(stats.getMeanClickNanos()))
+                .stat("max", StatsReport.millis(stats.getMaxClickNanos()))
+                .wrap()
+                .stat("refreshes", stats.getRefreshCount())
+                .stat("slot packets", stats.getSlotPacketCount())
+                .stat("full resyncs", stats.getFullResyncCount());
+        }
+
+        Messenger.info(context.getSource(), report.toString());
+        return 1;
+    }
+}
@@ -0,0 +1,53 @@
+package dev.spaxter.lynxlib.command;
+
+import com.mojang.brigadier.context.CommandContext;
+
+import dev.spaxter.lynxlib.chat.Messenger;
+import dev.spaxter.lynxlib.common.StatsReport;
+import dev.spaxter.lynxlib.task.SchedulerMetrics;
+import dev.spaxter.lynxlib.task.TaskScheduler;
+import dev.spaxter.lynxlib.task.TaskStats;
+import net.minecraft.command.CommandSource;
+
+/**
+ * Admin command showing the {@link SchedulerMetrics} of the {@link TaskScheduler}.
+ */
+public class SchedulerStatsCommand extends CustomCommand {
+    private static final int SLOWEST_TASK_COUNT = 5;
+
+    public SchedulerStatsCommand() {
+        super("lynxtasks");
+        this.setHelpText("Show task scheduler statistics");
+    }
+
+    @Override
+    public boolean checkPermission(CommandSource source) {
+        return source.hasPermission(2) && super.checkPermission(source);
+    }
+
+    @Override
+    public int execute(CommandContext<CommandSource> context) {
+        StatsReport report = new StatsReport("Task scheduler")
+            .line("Pending tasks", SchedulerMetrics.getPendingTaskCount())
+            .line("Deferred tasks", TaskScheduler.getDeferredTaskCount())
+            .line("Tasks per tick")
+            .stat("last", SchedulerMetrics.getTasksRunLastTick())
+            .stat("avg", String.format("%.1f", SchedulerMetrics.getAverageTasksPerTick()))
+            .stat("peak", SchedulerMetrics.getPeakTasksPerTick())
+            .line("Fire lag in ticks")
+            .stat("p50", SchedulerMetrics.getFireLagPercentile(50))
+            .stat("p99", SchedulerMetrics.getFireLagPercentile(99))
+            .stat("max", SchedulerMetrics.getMaxFireLag())
+            .line("Slowest tasks");
+        for (TaskStats stats : SchedulerMetrics.getSlowestTasks(SLOWEST_TASK_COUNT)) {
+            report.entry(stats.getLabel())
+                .stat("max", StatsReport.millis(stats.getMaxNanos()))
+                .stat("avg", StatsReport.millis(stats.getMeanNanos()))
+                .stat("p99", StatsReport.millis(stats.getPercentileNanos(99)))
+                .stat("runs", stats.getRunCount());
+        }
+
+        Messenger.info(context.getSource(), report.toString());
+        return 1;
+    }
+}
@@ -0,0 +1,89 @@
+package dev.spaxter.lynxlib.common;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of non-negative values with power of two buckets. Recording a value is a couple of bit operations and
+ * never allocates, which makes it cheap enough to use on hot paths. Percentiles are approximate: they are reported as
+ * the upper bound of the bucket the percentile falls in.
+ */
+public class Histogram {
+    private static final int BUCKETS = 64;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long total;
+    private long max;
+
+    /**
+     * Record a value. Negative values are recorded as 0.
+     *
+     * @param value The value to record
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        // Bucket n holds values in [2^(n-1), 2^n - 1], bucket 0 holds 0
+        this.counts[BUCKETS - Long.numberOfLeadingZeros(value)]++;
+        this.count++;
+        this.total += value;
+        if (value > this.max) {
+            this.max = value;
+        }
+    }
+
+    public long getCount() {
+        return this.count;
+    }
+
+    public long getTotal() {
+        return this.total;
+    }
+
+    public long getMax() {
+        return this.max;
+    }
+
+    /**
+     * Get the mean of all recorded values.
+     *
+     * @return The mean, or 0 if nothing has been recorded
+     */
+    public double getMean() {
+        return this.count == 0 ? 0 : (double) this.total / this.count;
+    }
+
+    /**
+     * Get an approximate percentile of the recorded values.
+     *
+     * @param percentile The percentile to get, 0-100
+     * @return Upper bound of the bucket holding the percentile, capped at the largest recorded value
+     */
+    public long getPercentile(double percentile) {
+        if (this.count == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(this.count * Math.min(100, Math.max(0, percentile)) / 100);
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += this.counts[bucket];
+            if (seen >= rank && seen > 0) {
+                long upperBound = bucket == 0 ? 0 : (1L << bucket) - 1;
+                return Math.min(upperBound, this.max);
+            }
+        }
+        return this.max;
+    }
+
+    /**
+     * Forget all recorded values.
+     */
+    public void reset() {
+        Arrays.fill(this.counts, 0);
+        this.count = 0;
+        this.total = 0;
+        this.max = 0;
+    }
+}
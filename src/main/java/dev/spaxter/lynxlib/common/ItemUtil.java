@@ -15,7 +15,6 @@ import net.minecraft.util.NonNullList;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.ResourceLocationException;
 import net.minecraft.util.text.ITextComponent;
-import net.minecraft.util.text.StringTextComponent;
 import net.minecraftforge.common.util.Constants;
 import net.minecraftforge.registries.ForgeRegistries;
 
@@ -24,6 +23,9 @@ import net.minecraftforge.registries.ForgeRegistries;
  */
 public class ItemUtil {
 
+    /* JSON of the name and lore texts set recently, item names repeat a lot across menus */
+    private static final LruCache<String, String> textJson = new LruCache<>(512);
+
     /**
      * Get an item from its resource name.
      *
@@ -47,11 +49,10 @@ public class ItemUtil {
      * @param name      The name to set
      */
     public static void setItemName(ItemStack itemStack, String name) {
-        StringTextComponent nameComponent = new ColoredTextComponent(name);
         CompoundNBT nbt = itemStack.getOrCreateTag();
         CompoundNBT displayTag = nbt.getCompound("display");
 
-        displayTag.putString("Name", ITextComponent.Serializer.toJson(nameComponent));
+        displayTag.putString("Name", toJson(name));
         nbt.put("display", displayTag);
     }
 
@@ -66,8 +67,7 @@ public class ItemUtil {
         ListNBT loreList = new ListNBT();
 
         for (String line : lines) {
-            ITextComponent loreLine = new ColoredTextComponent(line);
-            loreList.add(StringNBT.valueOf(ITextComponent.Serializer.toJson(loreLine)));
+            loreList.add(StringNBT.valueOf(toJson(line)));
         }
 
         CompoundNBT nbt = itemStack.getOrCreateTag();
@@ -179,6 +179,13 @@ public class ItemUtil {
         return true;
     }
 
+    /**
+     * Get the JSON of a colored text component, as stored in item names and lore.
+     */
+    private static String toJson(String text) {
+        return textJson.get(text, key -> ITextComponent.Serializer.toJson(new ColoredTextComponent(key)));
+    }
+
     private static int findFreeSlot(NonNullList<ItemStack> inventory) {
         for (int i = 0; i < inventory.size(); i++) {
             if (inventory.get(i).isEmpty()) {
@@ -0,0 +1,65 @@
+package dev.spaxter.lynxlib.common;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Small thread-safe cache keeping the most recently used entries up to a fixed size.
+ *
+ * @param <K> Type of the keys
+ * @param <V> Type of the values
+ */
+public class LruCache<K, V> {
+    private final Map<K, V> entries;
+
+    /**
+     * Create a cache.
+     *
+     * @param maxSize Maximum number of entries, the least recently used entry is dropped beyond it
+     */
+    public LruCache(final int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be greater than 0. Provided size: " + maxSize);
+        }
+        this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return this.size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Get the value of a key, computing and caching it if the key is not cached.
+     *
+     * @param key      The key
+     * @param function Computes the value of a key that is not cached, called outside of the cache lock
+     * @return The cached or computed value
+     */
+    public V get(K key, Function<K, V> function) {
+        synchronized (this.entries) {
+            V value = this.entries.get(key);
+            if (value != null) {
+                return value;
+            }
+        }
+        V value = function.apply(key);
+        synchronized (this.entries) {
+            this.entries.put(key, value);
+        }
+        return value;
+    }
+
+    public int size() {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (this.entries) {
+            this.entries.clear();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package dev.spaxter.lynxlib.common;
+
+/**
+ * Builder of the colored multi-line reports shown by the statistics commands. A report has a title, lines with a label
+ * and indented entries, e.g. one per task label. Lines and entries hold labelled values added with
+ * {@link #stat(String, Object)}.
+ */
+public class StatsReport {
+    private final StringBuilder builder;
+    private boolean firstStat;
+
+    /**
+     * Start a report.
+     *
+     * @param title Title of the report
+     */
+    public StatsReport(String title) {
+        this.builder = new StringBuilder("&e").append(title);
+    }
+
+    /**
+     * Start a line with a label and a single value.
+     *
+     * @param label Label of the line
+     * @param value The value
+     * @return This report
+     */
+    public StatsReport line(String label, Object value) {
+        this.builder.append("\n&f - ").append(label).append(": &e").append(value);
+        this.firstStat = false;
+        return this;
+    }
+
+    /**
+     * Start a line with a label, followed by the values added with {@link #stat(String, Object)}.
+     *
+     * @param label Label of the line
+     * @return This report
+     */
+    public StatsReport line(String label) {
+        this.builder.append("\n&f - ").append(label).append(':');
+        this.firstStat = true;
+        return this;
+    }
+
+    /**
+     * Add a line of plain text.
+     *
+     * @param text The text
+     * @return This report
+     */
+    public StatsReport text(String text) {
+        this.builder.append("\n&f - ").append(text);
+        this.firstStat = false;
+        return this;
+    }
+
+    /**
+     * Start an indented entry below the current line, followed by the values added with
+     * {@link #stat(String, Object)}.
+     *
+     * @param name Name of the entry
+     * @return This report
+     */
+    public StatsReport entry(String name) {
+        this.builder.append("\n&f   &e").append(name).append("&f:");
+        this.firstStat = true;
+        return this;
+    }
+
+    /**
+     * Continue the current entry on a new, further indented line.
+     *
+     * @return This report
+     */
+    public StatsReport wrap() {
+        this.builder.append("\n&f    ");
+        this.firstStat = true;
+        return this;
+    }
+
+    /**
+     * Add a labelled value to the current line or entry.
+     *
+     * @param label Label of the value, e.g. "max"
+     * @param value The value
+     * @return This report
+     */
+    public StatsReport stat(String label, Object value) {
+        this.builder.append(this.firstStat ? " " : "&f, ").append(label).append(" &e").append(value);
+        this.firstStat = false;
+        return this;
+    }
+
+    /**
+     * Format a duration for a report.
+     *
+     * @param nanos Duration in nanoseconds
+     * @return The duration in milliseconds, e.g. "1.25ms"
+     */
+    public static String millis(double nanos) {
+        return String.format("%.2fms", nanos / 1_000_000);
+    }
+
+    @Override
+    public String toString() {
+        return this.builder.toString();
+    }
+}
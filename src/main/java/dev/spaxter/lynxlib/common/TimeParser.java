@@ -13,31 +13,51 @@ public class TimeParser {
     private static final DateTimeFormatter civilianFormatter = DateTimeFormatter.ofPattern("h:mma");
 
     /**
-     * Get the next occurrence of a given time as a unix timestamp in milliseconds.
+     * Parse a time of day.
      *
      * @param timeString Time string, e.g. "11:00" or "3:00AM"
-     * @return Next occurrence of {@code timeString} as a unix timestamp
+     * @return The parsed time of day
      * @throws DateTimeParseException Throws if the timeString can not be parsed
      */
-    public static long getNextUnixTimestamp(String timeString) throws DateTimeParseException {
-        LocalTime time;
+    public static LocalTime parseTime(String timeString) throws DateTimeParseException {
         if (timeString.toUpperCase().matches(".*(AM|PM)$")) {
-            time = LocalTime.parse(timeString.toUpperCase(), civilianFormatter);
+            return LocalTime.parse(timeString.toUpperCase(), civilianFormatter);
         } else {
             // Otherwise, assume 24-hour format
-            time = LocalTime.parse(timeString, militaryFormatter);
+            return LocalTime.parse(timeString, militaryFormatter);
         }
+    }
 
-        LocalDate today = LocalDate.now();
-        LocalDateTime dateTime = LocalDateTime.of(today, time);
+    /**
+     * Get the next occurrence of a given time as a unix timestamp in milliseconds.
+     *
+     * @param timeString Time string, e.g. "11:00" or "3:00AM"
+     * @return Next occurrence of {@code timeString} as a unix timestamp
+     * @throws DateTimeParseException Throws if the timeString can not be parsed
+     */
+    public static long getNextUnixTimestamp(String timeString) throws DateTimeParseException {
+        return TimeParser.getNextUnixTimestamp(TimeParser.parseTime(timeString), System.currentTimeMillis());
+    }
+
+    /**
+     * Get the first occurrence of a time of day after a given unix timestamp.
+     *
+     * @param time        The time of day
+     * @param afterMillis Unix timestamp in milliseconds to search from
+     * @return Next occurrence of {@code time} strictly after {@code afterMillis} as a unix timestamp in milliseconds
+     */
+    public static long getNextUnixTimestamp(LocalTime time, long afterMillis) {
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDateTime after = LocalDateTime.ofInstant(Instant.ofEpochMilli(afterMillis), zone);
+        LocalDateTime dateTime = LocalDateTime.of(after.toLocalDate(), time);
 
-        // Check if the time has already passed for today
-        if (dateTime.isBefore(LocalDateTime.now())) {
+        // Check if the time has already passed for that day
+        if (!dateTime.isAfter(after)) {
             // Move to the next day
             dateTime = dateTime.plusDays(1);
         }
 
-        Instant nextOccurrence = dateTime.atZone(ZoneId.systemDefault()).toInstant();
+        Instant nextOccurrence = dateTime.atZone(zone).toInstant();
 
         return nextOccurrence.toEpochMilli();
     }
@@ -0,0 +1,25 @@
+package dev.spaxter.lynxlib.menu;
+
+import java.util.UUID;
+import javax.annotation.Nullable;
+
+/**
+ * Click handler whose work runs off the server thread, see
+ * {@link MenuBase#setAsyncClickHandler(int, IAsyncClickHandlerCallback)}.
+ *
+ * <p>The handler computes its result on the worker pool and returns a regular click handler applying that result, e.g.
+ * updating slots, closing the menu or opening another one. The returned handler runs on the server thread with the
+ * next tick.
+ */
+public interface IAsyncClickHandlerCallback {
+    /**
+     * Do the work of a click off the server thread. Must not touch the world, the menu or the player.
+     *
+     * @param slot     Index of the clicked slot
+     * @param playerId UUID of the player who clicked
+     * @return Handler applying the result on the server thread, or {@code null} if there is nothing to apply
+     * @throws Exception If the work failed. The error is logged and the slot is restored
+     */
+    @Nullable
+    IClickHandlerCallback compute(int slot, UUID playerId) throws Exception;
+}
@@ -5,4 +5,17 @@ import net.minecraft.inventory.container.Slot;
 
 public interface IClickHandlerCallback {
     public void operation(Slot clickedSlot, PlayerEntity player);
+
+    /**
+     * Combine this callback with another one running after it.
+     *
+     * @param after The callback to run after this one
+     * @return Callback running both callbacks in order
+     */
+    default IClickHandlerCallback andThen(IClickHandlerCallback after) {
+        return (clickedSlot, player) -> {
+            this.operation(clickedSlot, player);
+            after.operation(clickedSlot, player);
+        };
+    }
 }
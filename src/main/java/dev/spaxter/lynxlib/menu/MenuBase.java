@@ -4,8 +4,14 @@ import dev.spaxter.lynxlib.LynxLib;
 import dev.spaxter.lynxlib.chat.Messenger;
 import dev.spaxter.lynxlib.common.ItemUtil;
 import dev.spaxter.lynxlib.common.MagicValues;
-import java.util.HashMap;
-import java.util.Map;
+import dev.spaxter.lynxlib.task.TaskScheduler;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import net.minecraft.entity.player.PlayerEntity;
@@ -14,6 +20,7 @@ import net.minecraft.entity.player.ServerPlayerEntity;
 import net.minecraft.inventory.container.ClickType;
 import net.minecraft.inventory.container.Container;
 import net.minecraft.inventory.container.ContainerType;
+import net.minecraft.inventory.container.IContainerListener;
 import net.minecraft.inventory.container.Slot;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
@@ -27,33 +34,149 @@ import net.minecraftforge.items.wrapper.PlayerInvWrapper;
 
 /**
  * Base class for inventory menus.
+ *
+ * <p>Menus keep track of which slots changed since they were last sent to the player, and only send those slots with
+ * {@link SSetSlotPacket}s. The whole container is only resent for clicks that may have shuffled items around on the
+ * client, or when most of the menu changed at once.
+ *
+ * <p>Click handlers doing heavy work can run it off the server thread, see
+ * {@link #setAsyncClickHandler(int, IAsyncClickHandlerCallback)}.
  */
 public abstract class MenuBase extends Container {
 
+    /**
+     * Resend the whole container instead of single slots when more than this share of the slots changed at once.
+     */
+    private static final double DEFAULT_FULL_RESYNC_RATIO = 0.5;
+    private static final ClickType[] CLICK_TYPE_VALUES = ClickType.values();
+    static final int CLICK_TYPES = CLICK_TYPE_VALUES.length;
+
+    private static double defaultClicksPerSecond = 20;
+    private static int defaultClickBurst = 10;
+    @Nullable
+    private static ItemStack defaultLoadingItem;
+
+    /* Handed to the next menu when a pooled menu is closed, the menu's own writes are dropped from then on */
     protected final ItemStackHandler itemStackHandler;
-    private final Map<Slot, IClickHandlerCallback> clickHandlers;
+    private final MenuPool.MenuSlots menuSlots;
+    private final MenuPool.PlayerSlots inventorySlots;
+    private boolean released;
+    private final BitSet dirtySlots = new BitSet();
+
+    /* Slots holding a stack shared with a menu template, copied before they are modified */
+    private final BitSet sharedSlots = new BitSet();
+    private final ItemStack[] syncedStacks;
+
+    /* Click handlers by slot and click type, at slot * CLICK_TYPES + clickType.ordinal() */
+    private final IClickHandlerCallback[] clickHandlers;
+    @Nullable
+    private IClickHandlerCallback defaultClickHandler;
     private boolean isClickable = true;
+
+    /* Click throttling: a token bucket plus the last accepted click, to drop repeats within the same tick */
+    private double clicksPerSecond = defaultClicksPerSecond;
+    private int clickBurst = defaultClickBurst;
+    private double clickTokens = defaultClickBurst;
+    private long lastRefillNanos = System.nanoTime();
+    private int lastClickTick = -1;
+    private int lastClickSlot = -1;
+    @Nullable
+    private ClickType lastClickType;
+
+    /* Slots waiting for the result of an async click handler, clicks on them are ignored */
+    private final BitSet pendingSlots = new BitSet();
+    @Nullable
+    private ItemStack loadingItem = getDefaultLoadingItem();
+
+    /* Slots updated by the live menu driver, see setLiveItem() */
+    private final List<LiveSlot> liveSlots = new ArrayList<>();
+
+    /* Sync requested by clicks, sent at most once per tick */
+    private boolean resyncPending;
+    private boolean cursorPending;
+    private int lastSyncTick = -1;
+    private double fullResyncRatio = DEFAULT_FULL_RESYNC_RATIO;
+    @Nullable
+    private MenuStats stats;
     private SoundEvent clickSound = SoundEvents.TRIPWIRE_CLICK_ON;
     public final PlayerInventory playerInventory;
     public final int rows;
     public final int columns;
     public boolean valid = true;
 
+    /**
+     * A slot whose item is recomputed at a fixed interval while the menu is open.
+     */
+    private static class LiveSlot {
+        final int slot;
+        final Supplier<ItemStack> supplier;
+        final int interval;
+        int nextUpdateTick;
+
+        LiveSlot(int slot, Supplier<ItemStack> supplier, int interval) {
+            this.slot = slot;
+            this.supplier = supplier;
+            this.interval = interval;
+        }
+    }
+
+    /**
+     * Item handler of the menu slots. Forwards changes to the menu it currently belongs to, so it can be pooled and
+     * handed to another menu of the same size.
+     */
+    static final class MenuItemHandler extends ItemStackHandler {
+        @Nullable
+        MenuBase menu;
+
+        MenuItemHandler(int size) {
+            super(size);
+        }
+
+        @Override
+        protected void onContentsChanged(int slot) {
+            if (this.menu != null) {
+                this.menu.dirtySlots.set(slot);
+                this.menu.sharedSlots.clear(slot);
+            }
+        }
+
+        /**
+         * Empty the slots that hold an item, without notifying the menu.
+         */
+        void reset() {
+            for (int i = 0; i < this.stacks.size(); i++) {
+                if (!this.stacks.get(i).isEmpty()) {
+                    this.stacks.set(i, ItemStack.EMPTY);
+                }
+            }
+        }
+    }
+
     @SuppressWarnings("checkstyle:MissingJavadocMethod")
     public MenuBase(final ContainerType<?> containerType, PlayerInventory playerInventory, final int id,
         final int columns, final int rows) {
         super(containerType, id);
-        this.clickHandlers = new HashMap<>();
-
         this.playerInventory = playerInventory;
         this.rows = rows;
         this.columns = columns;
-        int slotCount = columns * rows;
 
-        this.itemStackHandler = new ItemStackHandler(slotCount);
+        MenuPool.MenuSlots pooledSlots = MenuManager.isPooling() ? MenuPool.acquireMenuSlots(columns, rows) : null;
+        this.menuSlots = pooledSlots != null ? pooledSlots : this.initSlots();
+        this.menuSlots.handler.menu = this;
+        this.itemStackHandler = this.menuSlots.handler;
+        MenuPool.PlayerSlots pooledInventorySlots = MenuManager.isPooling()
+            ? MenuPool.acquirePlayerSlots(playerInventory) : null;
+        this.inventorySlots = pooledInventorySlots != null ? pooledInventorySlots : this.initPlayerInventorySlots();
 
-        this.initSlots();
-        this.initPlayerInventorySlots();
+        for (Slot slot : this.menuSlots.slots) {
+            this.addSlot(slot);
+        }
+        for (Slot slot : this.inventorySlots.slots) {
+            this.addSlot(slot);
+        }
+        this.syncedStacks = new ItemStack[this.slots.size()];
+        Arrays.fill(this.syncedStacks, ItemStack.EMPTY);
+        this.clickHandlers = new IClickHandlerCallback[this.slots.size() * CLICK_TYPES];
     }
 
     /**
@@ -69,14 +192,145 @@ public abstract class MenuBase extends Container {
     }
 
     /**
-     * Set a click callback function for a slot.
+     * Set a click callback function for a slot, replacing the slot's earlier handlers for every click type.
      *
      * @param slot     The slot to set the click handler for.
      * @param function The function to run on click.
      */
     public void setClickHandler(int slot, IClickHandlerCallback function) {
-        clickHandlers.put(this.slots.get(slot), function);
-        Messenger.debug(this.playerInventory.player, "Set click handler at slot &e" + slot, this.getClass());
+        for (ClickType clickType : CLICK_TYPE_VALUES) {
+            this.clickHandlers[this.handlerIndex(slot, clickType)] = function;
+        }
+        Messenger.debug(this.playerInventory.player, "Set click handler at slot &e{}", slot, this.getClass());
+    }
+
+    /**
+     * Set a click callback function for one type of click on a slot, replacing the earlier handlers for that click
+     * type.
+     *
+     * @param slot      The slot to set the click handler for.
+     * @param clickType The type of click to handle, e.g. {@link ClickType#QUICK_MOVE} for shift-clicks.
+     * @param function  The function to run on click.
+     */
+    public void setClickHandler(int slot, ClickType clickType, IClickHandlerCallback function) {
+        this.clickHandlers[this.handlerIndex(slot, clickType)] = function;
+        Messenger.debug(this.playerInventory.player, "Set {} click handler at slot &e{}", clickType, slot,
+            this.getClass());
+    }
+
+    /**
+     * Set a click callback function for a slot whose work runs off the server thread. On click, the slot shows the
+     * loading item and the handler computes its result on the worker pool. The result is applied on the server thread
+     * with the next tick, after the slot got its previous item back. Further clicks on the slot are ignored until
+     * then, and a result arriving after the menu was closed is dropped.
+     *
+     * @param slot     The slot to set the click handler for.
+     * @param function The function to run on click.
+     */
+    public void setAsyncClickHandler(int slot, IAsyncClickHandlerCallback function) {
+        this.setClickHandler(slot, (clickedSlot, player) -> this.startAsyncClick(slot, function, player));
+    }
+
+    /**
+     * Set the item shown in a slot while its async click handler runs. The item is shared like the items of a
+     * template, see {@link #getItemForUpdate(int)}.
+     *
+     * @param item The item to show, or {@code null} to leave the slot unchanged
+     */
+    public void setLoadingItem(@Nullable ItemStack item) {
+        this.loadingItem = item;
+    }
+
+    /**
+     * Check if a slot is waiting for the result of its async click handler.
+     *
+     * @param slot The slot index
+     * @return {@code true} if the slot has a click handler running off the server thread
+     */
+    public boolean isSlotPending(int slot) {
+        return this.pendingSlots.get(slot);
+    }
+
+    /**
+     * Add a click callback function to a slot for every click type. It runs after the slot's earlier handlers.
+     *
+     * @param slot     The slot to add the click handler to.
+     * @param function The function to run on click.
+     */
+    public void addClickHandler(int slot, IClickHandlerCallback function) {
+        for (ClickType clickType : CLICK_TYPE_VALUES) {
+            this.addClickHandler(slot, clickType, function);
+        }
+    }
+
+    /**
+     * Add a click callback function for one type of click on a slot. It runs after the earlier handlers for that click
+     * type.
+     *
+     * @param slot      The slot to add the click handler to.
+     * @param clickType The type of click to handle.
+     * @param function  The function to run on click.
+     */
+    public void addClickHandler(int slot, ClickType clickType, IClickHandlerCallback function) {
+        int index = this.handlerIndex(slot, clickType);
+        IClickHandlerCallback existing = this.clickHandlers[index];
+        this.clickHandlers[index] = existing == null ? function : existing.andThen(function);
+    }
+
+    /**
+     * Set the click callback function run for clicks on slots that have no handler for the click.
+     *
+     * @param function The function to run on click, or {@code null} to ignore such clicks.
+     */
+    public void setDefaultClickHandler(@Nullable IClickHandlerCallback function) {
+        this.defaultClickHandler = function;
+    }
+
+    /**
+     * Remove the click handlers of a slot for every click type.
+     *
+     * @param slot The slot to remove the click handlers from.
+     */
+    public void removeClickHandlers(int slot) {
+        int start = this.handlerIndex(slot, CLICK_TYPE_VALUES[0]);
+        Arrays.fill(this.clickHandlers, start, start + CLICK_TYPES, null);
+    }
+
+    /**
+     * Limit how fast players may click in newly created menus, see {@link #setClickRateLimit(double, int)}.
+     *
+     * @param clicksPerSecond Sustained number of clicks per second, or {@code 0} for no limit
+     * @param burst           Number of clicks allowed in a quick burst
+     */
+    public static void setDefaultClickRateLimit(double clicksPerSecond, int burst) {
+        validateClickRateLimit(clicksPerSecond, burst);
+        defaultClicksPerSecond = clicksPerSecond;
+        defaultClickBurst = burst;
+    }
+
+    /**
+     * Limit how fast the player may click in this menu. Clicks beyond the limit do not run click handlers, and
+     * repeated clicks of the same kind on the same slot within one tick count as one click.
+     *
+     * @param clicksPerSecond Sustained number of clicks per second, or {@code 0} for no limit
+     * @param burst           Number of clicks allowed in a quick burst
+     * @throws IllegalArgumentException If the rate is negative or the burst is less than 1
+     */
+    public void setClickRateLimit(double clicksPerSecond, int burst) {
+        validateClickRateLimit(clicksPerSecond, burst);
+        this.clicksPerSecond = clicksPerSecond;
+        this.clickBurst = burst;
+        this.clickTokens = Math.min(this.clickTokens, burst);
+    }
+
+    /**
+     * Set the share of the slots that has to change at once before the whole container is resent instead of the
+     * changed slots.
+     *
+     * @param ratio Share of the slots, from 0 to 1. At 1, only the changed slots are ever sent
+     */
+    public void setFullResyncRatio(double ratio) {
+        this.fullResyncRatio = ratio;
     }
 
     /**
@@ -100,7 +354,7 @@ public abstract class MenuBase extends Container {
         if (item == null) {
             return;
         }
-        this.itemStackHandler.setStackInSlot(slot, item);
+        this.setStack(slot, item);
     }
 
     /**
@@ -147,9 +401,143 @@ public abstract class MenuBase extends Container {
         for (short i = 0; i < this.itemStackHandler.getSlots(); i++) {
             Item itemInSlot = this.itemStackHandler.getStackInSlot(i).getItem();
             if (itemInSlot == Items.AIR) {
-                this.itemStackHandler.setStackInSlot(i, item);
+                this.setStack(i, item);
+            }
+        }
+    }
+
+    /**
+     * Apply a precomputed template to the menu, setting its items, click handlers and click sound. The menu shares the
+     * template's item stacks, use {@link #getItemForUpdate(int)} to modify an item in place afterwards.
+     *
+     * @param template The template to apply
+     * @throws IllegalArgumentException If the template was built for a menu of a different size
+     */
+    public void applyTemplate(MenuTemplate template) {
+        template.applyTo(this);
+    }
+
+    /**
+     * Get the item in a slot to modify it in place. If the slot still holds a stack shared with a template, the stack
+     * is copied into the slot first, so the template and other menus are not affected. Call
+     * {@link #markSlotDirty(int)} after modifying the stack.
+     *
+     * @param slot The slot index
+     * @return The stack in the slot, owned by this menu. A detached stack once a pooled menu was closed
+     */
+    public ItemStack getItemForUpdate(int slot) {
+        if (this.released) {
+            return new ItemStack(Items.AIR);
+        }
+        if (this.sharedSlots.get(slot)) {
+            this.setStack(slot, this.itemStackHandler.getStackInSlot(slot).copy());
+        }
+        return this.itemStackHandler.getStackInSlot(slot);
+    }
+
+    /**
+     * Copy a template's layout into the menu.
+     */
+    void applyLayout(ItemStack[] items, IClickHandlerCallback[] handlers,
+        @Nullable IClickHandlerCallback defaultHandler, @Nullable SoundEvent sound) {
+        for (int i = 0; i < items.length; i++) {
+            if (items[i] != null) {
+                this.setSharedItemAt(items[i], i);
+            }
+        }
+        System.arraycopy(handlers, 0, this.clickHandlers, 0, handlers.length);
+        this.defaultClickHandler = defaultHandler;
+        if (sound != null) {
+            this.clickSound = sound;
+        }
+    }
+
+    /**
+     * Set a stack that is also shown in other slots or menus, so it is copied before it is modified in place, see
+     * {@link #getItemForUpdate(int)}.
+     */
+    void setSharedItemAt(ItemStack item, int slot) {
+        if (this.setStack(slot, item)) {
+            this.sharedSlots.set(slot);
+        }
+    }
+
+    /**
+     * Send the whole container with the next sync instead of the changed slots, e.g. after most of the menu changed.
+     */
+    void requestFullResync() {
+        this.resyncPending = true;
+    }
+
+    /**
+     * Show a live item in a slot, e.g. a countdown or a stock level. While the menu is open, the supplier is called
+     * every {@code interval} ticks by a driver shared by all menus, and the slot is only sent to the player if the
+     * supplied item differs from the one shown. All slots changed in a tick go out in a single sync.
+     *
+     * @param slot     The slot index
+     * @param supplier Supplies the item to show, called on the server thread
+     * @param interval Number of ticks between updates
+     * @throws IllegalArgumentException If the interval is less than 1
+     */
+    public void setLiveItem(int slot, Supplier<ItemStack> supplier, int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Live item interval must be greater than 0. Provided interval: "
+                + interval);
+        }
+        this.removeLiveItem(slot);
+        this.liveSlots.add(new LiveSlot(slot, supplier, interval));
+        this.setStack(slot, supplier.get());
+        MenuManager.trackLiveMenu(this);
+    }
+
+    /**
+     * Stop updating a live slot. The slot keeps the item it shows.
+     *
+     * @param slot The slot index
+     */
+    public void removeLiveItem(int slot) {
+        this.liveSlots.removeIf(liveSlot -> liveSlot.slot == slot);
+    }
+
+    /**
+     * Update the live slots that are due. Called by the live menu driver once per tick.
+     *
+     * @param tick The current server tick
+     * @return {@code false} once the menu has no live slots or was closed, so the driver can stop tracking it
+     */
+    boolean updateLiveSlots(int tick) {
+        if (!this.valid || this.liveSlots.isEmpty()) {
+            return false;
+        }
+
+        for (LiveSlot liveSlot : this.liveSlots) {
+            if (tick < liveSlot.nextUpdateTick) {
+                continue;
+            }
+            liveSlot.nextUpdateTick = tick + liveSlot.interval;
+
+            ItemStack stack;
+            try {
+                stack = liveSlot.supplier.get();
+            } catch (Exception e) {
+                LynxLib.logger.error("Live item supplier of slot " + liveSlot.slot + " failed", e);
+                continue;
+            }
+            if (!ItemStack.matches(stack, this.itemStackHandler.getStackInSlot(liveSlot.slot))) {
+                this.setStack(liveSlot.slot, stack);
             }
         }
+        return true;
+    }
+
+    /**
+     * Mark a slot as changed, so it is sent to the player with the next sync. Only needed after modifying the
+     * {@link ItemStack} in a slot in place, {@link #setItemAt(ItemStack, int)} marks the slot by itself.
+     *
+     * @param slot The slot index
+     */
+    public void markSlotDirty(int slot) {
+        this.dirtySlots.set(slot);
     }
 
     /**
@@ -165,41 +553,58 @@ public abstract class MenuBase extends Container {
      * Close this menu.
      */
     public void close() {
-        this.clickHandlers.clear();
+        Arrays.fill(this.clickHandlers, null);
+        this.defaultClickHandler = null;
         this.removed(this.playerInventory.player);
         this.setValid(false);
         this.playerInventory.player.closeContainer();
     }
 
     /**
-     * Empty the inventory menu, removing all items and click handlers.
+     * Empty the inventory menu, removing all items and slot click handlers. The default click handler is kept.
      */
     public void empty() {
-        this.clickHandlers.clear();
+        Arrays.fill(this.clickHandlers, null);
         ItemStack air = new ItemStack(Items.AIR);
         for (int i = 0; i < this.rows * this.columns; i++) {
-            Slot slot = this.slots.get(i);
-            slot.set(air);
+            this.setStack(i, air);
+        }
+    }
+
+    /**
+     * Set the stack in a menu slot, unless the menu was closed and handed its pooled slots to another menu.
+     *
+     * @return {@code true} if the stack was set
+     */
+    private boolean setStack(int slot, ItemStack stack) {
+        if (this.released) {
+            return false;
         }
+        this.itemStackHandler.setStackInSlot(slot, stack);
+        return true;
     }
 
     /**
      * Create the slots for the inventory menu.
      */
-    private void initSlots() {
-        for (int i = 0; i < this.rows * this.columns; i++) {
+    private MenuPool.MenuSlots initSlots() {
+        MenuItemHandler handler = new MenuItemHandler(this.rows * this.columns);
+        Slot[] slots = new Slot[this.rows * this.columns];
+        for (int i = 0; i < slots.length; i++) {
             int x = MagicValues.INVENTORY_SLOT_HORIZONTAL_OFFSET + i % this.columns * MagicValues.INVENTORY_SLOT_HEIGHT;
             int y = MagicValues.INVENTORY_SLOT_HEIGHT + i / this.columns * MagicValues.INVENTORY_SLOT_HEIGHT;
-            this.addSlot(new LockedSlot(this.itemStackHandler, i, x, y));
+            slots[i] = new LockedSlot(handler, i, x, y);
         }
         Messenger.debug(this.playerInventory.player, "Initialized menu slots", this.getClass());
+        return new MenuPool.MenuSlots(this.columns, this.rows, handler, slots);
     }
 
     /**
      * Create the slots for the player's inventory to prevent internal Forge errors when clicking items.
      */
-    private void initPlayerInventorySlots() {
+    private MenuPool.PlayerSlots initPlayerInventorySlots() {
         PlayerInvWrapper playerInvWrapper = new PlayerInvWrapper(this.playerInventory);
+        Slot[] slots = new Slot[36];
 
         // Add the player's main inventory slots (9-35 in the default player inventory)
         for (int row = 0; row < 3; row++) {
@@ -207,7 +612,7 @@ public abstract class MenuBase extends Container {
                 int x = MagicValues.INVENTORY_SLOT_HORIZONTAL_OFFSET + col * MagicValues.INVENTORY_SLOT_HEIGHT;
                 int y = MagicValues.PLAYER_INVENTORY_VERTICAL_OFFSET + row * MagicValues.INVENTORY_SLOT_HEIGHT;
                 int index = col + row * 9 + 9;
-                this.addSlot(new SlotItemHandler(playerInvWrapper, index, x, y));
+                slots[index - 9] = new SlotItemHandler(playerInvWrapper, index, x, y);
             }
         }
 
@@ -215,8 +620,9 @@ public abstract class MenuBase extends Container {
         for (int col = 0; col < 9; col++) {
             int x = MagicValues.INVENTORY_SLOT_HORIZONTAL_OFFSET + col * MagicValues.INVENTORY_SLOT_HEIGHT;
             int y = MagicValues.PLAYER_HOTBAR_VERTICAL_OFFSET;
-            this.addSlot(new SlotItemHandler(playerInvWrapper, col, x, y));
+            slots[27 + col] = new SlotItemHandler(playerInvWrapper, col, x, y);
         }
+        return new MenuPool.PlayerSlots(this.playerInventory, slots);
     }
 
     /**
@@ -224,6 +630,15 @@ public abstract class MenuBase extends Container {
      */
     public abstract void closed();
 
+    private int handlerIndex(int slot, ClickType clickType) {
+        if (slot < 0 || slot >= this.slots.size()) {
+            throw new IndexOutOfBoundsException(
+                "Slot index " + slot + " is out of bounds for the menu. Maximum allowed index: "
+                    + (this.slots.size() - 1));
+        }
+        return slot * CLICK_TYPES + clickType.ordinal();
+    }
+
     /**
      * Validate provided coordinates in the inventory.
      */
@@ -253,16 +668,190 @@ public abstract class MenuBase extends Container {
         }
     }
 
-    private void refresh(PlayerEntity player) {
+    /**
+     * Check if the client may change slots other than the clicked one when it predicts a click of the given type, so
+     * the whole container has to be resent to undo the prediction. Swaps also change the hotbar slot of the pressed
+     * number key, the other types may move items across the container.
+     *
+     * @param clickType The type of click
+     * @return {@code true} if the click is undone by resending the whole container
+     */
+    private static boolean requiresFullResync(ClickType clickType) {
+        return clickType == ClickType.QUICK_MOVE || clickType == ClickType.PICKUP_ALL
+            || clickType == ClickType.QUICK_CRAFT || clickType == ClickType.SWAP || clickType == ClickType.CLONE;
+    }
+
+    /**
+     * Undo the client's prediction of a click. Clicks that only touch the clicked slot are fixed by resending
+     * that slot along with the slots the click handler changed. Other clicks resend the whole container, which is
+     * left to vanilla: if the result does not match the client's prediction, vanilla resends the container right
+     * after the click, see {@link #setSynched(PlayerEntity, boolean)}, otherwise the resync goes out with the sync
+     * that follows the click. At most one sync is sent per tick, the changes of further clicks in the same tick go
+     * out with the next tick's sync.
+     */
+    private void refresh(PlayerEntity player, int slot, ClickType clickType) {
         if (player instanceof ServerPlayerEntity) {
-            ServerPlayerEntity serverPlayer = (ServerPlayerEntity) player;
-            serverPlayer.refreshContainer(this, this.getItems());
-            this.broadcastChanges();
-            this.clearPlayerCursor(player);
+            MenuStats stats = this.stats();
+            if (stats != null) {
+                stats.recordRefresh();
+            }
+            this.cursorPending = true;
+            if (requiresFullResync(clickType)) {
+                this.resyncPending = true;
+            } else {
+                if (slot >= 0) {
+                    this.dirtySlots.set(slot);
+                }
+                this.broadcastChanges();
+            }
         }
         Messenger.debug(this.playerInventory.player, "Refreshed menu container", this.getClass());
     }
 
+    /**
+     * Take a token from the click bucket, unless the click repeats the last accepted one within the same tick.
+     *
+     * @return {@code true} if the click should be handled
+     */
+    private boolean acceptClick(int slot, ClickType clickType) {
+        int tick = this.currentTick();
+        if (tick == this.lastClickTick && slot == this.lastClickSlot && clickType == this.lastClickType) {
+            return false;
+        }
+
+        if (this.clicksPerSecond > 0) {
+            long now = System.nanoTime();
+            this.clickTokens = Math.min(this.clickBurst,
+                this.clickTokens + (now - this.lastRefillNanos) * this.clicksPerSecond / 1_000_000_000.0);
+            this.lastRefillNanos = now;
+            if (this.clickTokens < 1) {
+                return false;
+            }
+            this.clickTokens--;
+        }
+
+        this.lastClickTick = tick;
+        this.lastClickSlot = slot;
+        this.lastClickType = clickType;
+        return true;
+    }
+
+    /**
+     * Start the off-thread part of an async click handler and show the loading item in the slot.
+     */
+    private void startAsyncClick(int slot, IAsyncClickHandlerCallback function, PlayerEntity player) {
+        UUID playerId = player.getUUID();
+        ItemStack shown = this.slots.get(slot).getItem();
+        boolean shared = this.sharedSlots.get(slot);
+        ItemStack loading = slot < this.itemStackHandler.getSlots() ? this.loadingItem : null;
+
+        this.pendingSlots.set(slot);
+        if (loading != null) {
+            // The loading item is shared by all menus, marking the slot shared makes getItemForUpdate() copy it first
+            this.setStack(slot, loading);
+            this.sharedSlots.set(slot);
+        }
+        TaskScheduler.runAsync(() -> {
+            try {
+                return function.compute(slot, playerId);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }).whenCompleteAsync((result, error) -> this.finishAsyncClick(slot, shown, shared, loading, result, error),
+            TaskScheduler.mainThread());
+    }
+
+    /**
+     * Restore the slot of a finished async click handler and apply its result. Runs on the server thread.
+     */
+    private void finishAsyncClick(int slot, ItemStack shown, boolean shared, @Nullable ItemStack loading,
+        @Nullable IClickHandlerCallback result, @Nullable Throwable error) {
+        this.pendingSlots.clear(slot);
+        if (!this.valid) {
+            return;
+        }
+
+        // Only restore the slot if nothing else replaced the loading item in the meantime
+        if (loading != null && this.itemStackHandler.getStackInSlot(slot) == loading) {
+            this.setStack(slot, shown);
+            if (shared) {
+                this.sharedSlots.set(slot);
+            }
+        }
+        if (error != null) {
+            LynxLib.logger.error("Async click handler of slot " + slot + " failed", error);
+            return;
+        }
+        if (result != null) {
+            try {
+                result.operation(this.slots.get(slot), this.playerInventory.player);
+            } catch (Exception e) {
+                LynxLib.logger.error("Async click handler of slot " + slot + " failed to apply its result", e);
+            }
+        }
+    }
+
+    private static ItemStack getDefaultLoadingItem() {
+        if (defaultLoadingItem == null) {
+            ItemStack itemStack = new ItemStack(Items.CLOCK);
+            ItemUtil.setItemName(itemStack, "&7Loading...");
+            defaultLoadingItem = itemStack;
+        }
+        return defaultLoadingItem;
+    }
+
+    /**
+     * Get the statistics of the menu's class.
+     *
+     * @return The statistics, or {@code null} if menu metrics are disabled
+     */
+    @Nullable
+    MenuStats stats() {
+        if (!MenuMetrics.isEnabled()) {
+            return null;
+        }
+        if (this.stats == null) {
+            this.stats = MenuMetrics.statsFor(this.getClass());
+        }
+        return this.stats;
+    }
+
+    private int currentTick() {
+        PlayerEntity player = this.playerInventory.player;
+        return player instanceof ServerPlayerEntity ? ((ServerPlayerEntity) player).server.getTickCount() : -1;
+    }
+
+    private static void validateClickRateLimit(double clicksPerSecond, int burst) {
+        if (clicksPerSecond < 0 || burst < 1) {
+            throw new IllegalArgumentException(
+                "Click rate must not be negative and burst must be greater than 0. Provided rate: " + clicksPerSecond
+                    + ", burst: " + burst);
+        }
+    }
+
+    /**
+     * Send the whole container to the player.
+     */
+    private void resyncAll(ServerPlayerEntity player) {
+        MenuStats stats = this.stats();
+        if (stats != null) {
+            stats.recordFullResync();
+        }
+        this.snapshotPlayerSlots();
+        player.refreshContainer(this, this.getItems());
+    }
+
+    /**
+     * Remember the player inventory as it is now sent to the player. Menu slots are tracked by their dirty bits and
+     * need no copies.
+     */
+    private void snapshotPlayerSlots() {
+        for (int i = this.itemStackHandler.getSlots(); i < this.syncedStacks.length; i++) {
+            this.syncedStacks[i] = this.slots.get(i).getItem().copy();
+        }
+        this.dirtySlots.clear();
+    }
+
     private void clearPlayerCursor(PlayerEntity player) {
         if (player instanceof ServerPlayerEntity) {
             SSetSlotPacket packet = new SSetSlotPacket(-1, -1, ItemStack.EMPTY);
@@ -282,28 +871,45 @@ public abstract class MenuBase extends Container {
 
         this.isClickable = false;
         try {
-            Messenger.debug(player, "You clicked slot &e" + slot, this.getClass());
+            Messenger.debug(player, "You clicked slot &e{}", slot, this.getClass());
 
             if (slot < 0 || clickType == ClickType.THROW) {
+                // Dragging and throwing items already changed the slots on the client
+                if (clickType == ClickType.QUICK_CRAFT || clickType == ClickType.THROW) {
+                    this.refresh(player, slot, clickType);
+                }
                 return ItemStack.EMPTY;
             }
 
             Slot clicked = this.slots.get(slot);
-            if (clickHandlers.containsKey(clicked)) {
+            // The client predicts a pickup returns the stack in the slot. Returning the same stack lets the server
+            // acknowledge the click instead of resending the whole container, the slot is corrected in refresh().
+            ItemStack predicted = clickType == ClickType.PICKUP ? clicked.getItem().copy() : ItemStack.EMPTY;
+            IClickHandlerCallback handler = this.clickHandlers[slot * CLICK_TYPES + clickType.ordinal()];
+            if (handler == null) {
+                handler = this.defaultClickHandler;
+            }
+            if (handler != null && !this.pendingSlots.get(slot) && this.acceptClick(slot, clickType)) {
                 player.playSound(this.clickSound, 1.0f, 1.0f);
+                MenuStats stats = this.stats();
+                long startTime = stats != null ? System.nanoTime() : 0;
                 try {
-                    clickHandlers.get(clicked).operation(clicked, player);
+                    handler.operation(clicked, player);
                 } catch (Exception e) {
                     LynxLib.logger.error(e);
                     throw new RuntimeException(e);
+                } finally {
+                    if (stats != null) {
+                        stats.recordClick(System.nanoTime() - startTime);
+                    }
                 }
             }
 
-            this.refresh(player);
+            this.refresh(player, slot, clickType);
+            return predicted;
         } finally {
             this.isClickable = true;
         }
-        return ItemStack.EMPTY;
     }
 
     @Override
@@ -324,7 +930,7 @@ public abstract class MenuBase extends Container {
     @Override
     @Nonnull
     public ItemStack quickMoveStack(@Nonnull PlayerEntity player, int index) {
-        this.refresh(player);
+        this.refresh(player, index, ClickType.QUICK_MOVE);
         return ItemStack.EMPTY;
     }
 
@@ -337,13 +943,98 @@ public abstract class MenuBase extends Container {
     public void removed(@Nonnull PlayerEntity player) {
         this.clearPlayerCursor(player);
         super.removed(player);
-        MenuManager.openMenus.remove(player);
+        MenuManager.menuClosed(player);
         this.setValid(false);
         this.closed();
+        if (MenuManager.isPooling() && !this.released) {
+            // The slot structures go to the next menu. Late writes to this menu, e.g. from a delayed task, are
+            // dropped instead of changing the next menu's slots.
+            this.released = true;
+            this.menuSlots.handler.menu = null;
+            MenuPool.release(this.menuSlots, this.inventorySlots);
+        }
         Messenger.debug(this.playerInventory.player, "Container removed", this.getClass());
     }
 
     @Override
     public void setItem(int slot, @Nonnull ItemStack item) {
     }
+
+    /**
+     * Vanilla marks the menu as out of sync when the result of a click does not match the client's prediction, and
+     * resends the whole container right after. A resync requested by the click is dropped, so the container is not
+     * sent twice.
+     */
+    @Override
+    public void setSynched(@Nonnull PlayerEntity player, boolean synched) {
+        super.setSynched(player, synched);
+        if (!synched) {
+            MenuStats stats = this.stats();
+            if (stats != null) {
+                stats.recordFullResync();
+            }
+            this.resyncPending = false;
+            this.cursorPending = false;
+            this.snapshotPlayerSlots();
+        }
+    }
+
+    @Override
+    public void addSlotListener(@Nonnull IContainerListener listener) {
+        // The listener is sent the whole container, start tracking changes from that state
+        this.resyncPending = false;
+        this.snapshotPlayerSlots();
+        super.addSlotListener(listener);
+    }
+
+    /**
+     * Send the slots that changed since the last sync to the player. Menu slots are only compared when they were
+     * marked dirty, player inventory slots can change without the menu knowing and are always compared. Sends at most
+     * once per tick, changes made after the tick's sync wait for the next tick.
+     */
+    @Override
+    public void broadcastChanges() {
+        if (!(this.playerInventory.player instanceof ServerPlayerEntity)) {
+            return;
+        }
+        int tick = this.currentTick();
+        if (tick == this.lastSyncTick) {
+            return;
+        }
+
+        int menuSlots = this.itemStackHandler.getSlots();
+        for (int i = menuSlots; i < this.syncedStacks.length; i++) {
+            if (!ItemStack.matches(this.syncedStacks[i], this.slots.get(i).getItem())) {
+                this.dirtySlots.set(i);
+            }
+        }
+        if (this.dirtySlots.isEmpty() && !this.resyncPending && !this.cursorPending) {
+            return;
+        }
+
+        ServerPlayerEntity player = (ServerPlayerEntity) this.playerInventory.player;
+        this.lastSyncTick = tick;
+        if (this.resyncPending || this.dirtySlots.cardinality() > this.syncedStacks.length * this.fullResyncRatio) {
+            // Also resends the cursor
+            this.resyncAll(player);
+        } else {
+            MenuStats stats = this.stats();
+            for (int i = this.dirtySlots.nextSetBit(0); i >= 0; i = this.dirtySlots.nextSetBit(i + 1)) {
+                ItemStack stack = this.slots.get(i).getItem();
+                if (i >= menuSlots) {
+                    this.syncedStacks[i] = stack.copy();
+                }
+                player.connection.send(new SSetSlotPacket(this.containerId, i, stack));
+                if (stats != null) {
+                    stats.recordSlotPacket();
+                }
+            }
+            this.dirtySlots.clear();
+            if (this.cursorPending) {
+                this.clearPlayerCursor(player);
+            }
+        }
+        this.resyncPending = false;
+        this.cursorPending = false;
+    }
 }
@@ -1,19 +1,55 @@
 package dev.spaxter.lynxlib.menu;
 
+import java.util.AbstractMap;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
-
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import javax.annotation.Nullable;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.entity.player.ServerPlayerEntity;
 import net.minecraft.inventory.container.INamedContainerProvider;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.util.concurrent.TickDelayedTask;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.server.ServerLifecycleHooks;
 
 /**
  * Manager class for opening custom inventory menus.
+ *
+ * <p>Open menus are tracked by player UUID, so the registry never keeps a player entity alive, and entries are dropped
+ * when the player logs out. The registry may be read and changed from any thread.
+ *
+ * <p>With {@link #setPooling(boolean)}, closed menus hand their slot structures to the next menu of the same size.
  */
 public class MenuManager {
 
-    public static Map<ServerPlayerEntity, INamedContainerProvider> openMenus = new HashMap<>();
+    private static final Map<UUID, INamedContainerProvider> menusByPlayer = new ConcurrentHashMap<>();
+
+    /**
+     * Read-only view of the open menus by player.
+     *
+     * @deprecated Open menus are tracked by player UUID, use {@link #getOpenMenu(PlayerEntity)} and
+     *     {@link #getOpenMenuCount()}. Iterating the view looks up every player with an open menu.
+     */
+    @Deprecated
+    public static final Map<ServerPlayerEntity, INamedContainerProvider> openMenus = new OpenMenusView();
+
+    private static final Queue<UUID> pendingRefreshes = new ConcurrentLinkedQueue<>();
+    private static final Set<UUID> queuedRefreshes = ConcurrentHashMap.newKeySet();
+    private static volatile int refreshesPerTick = 10;
+    private static volatile boolean pooling;
+
+    /* Menus with live slots, only touched on the server thread */
+    private static final Set<MenuBase> liveMenus = new HashSet<>();
 
     /**
      * Open a menu for a player. This will open the menu after 1 tick of the server to ensure the menu is opened safely
@@ -25,9 +61,18 @@ public class MenuManager {
     public static void openMenu(PlayerEntity player, INamedContainerProvider menuProvider) {
         if (player instanceof ServerPlayerEntity) {
             ServerPlayerEntity serverPlayer = (ServerPlayerEntity) player;
+            boolean timed = MenuMetrics.isEnabled();
+            long requestTime = timed ? System.nanoTime() : 0;
             serverPlayer.server.tell(new TickDelayedTask(1, () -> {
-                openMenus.put(serverPlayer, menuProvider);
+                // Opening the menu closes the previous one first, which removes its entry
                 serverPlayer.openMenu(menuProvider);
+                menusByPlayer.put(serverPlayer.getUUID(), menuProvider);
+                if (timed && serverPlayer.containerMenu instanceof MenuBase) {
+                    MenuStats stats = ((MenuBase) serverPlayer.containerMenu).stats();
+                    if (stats != null) {
+                        stats.recordOpen(System.nanoTime() - requestTime);
+                    }
+                }
             }));
         }
     }
@@ -38,9 +83,8 @@ public class MenuManager {
      * @param player The player to close the menu for.
      */
     public static void closeMenu(PlayerEntity player) {
-        if (player instanceof ServerPlayerEntity && openMenus.containsKey(player)) {
+        if (player instanceof ServerPlayerEntity && menusByPlayer.remove(player.getUUID()) != null) {
             ServerPlayerEntity serverPlayer = (ServerPlayerEntity) player;
-            openMenus.remove(serverPlayer);
             if (serverPlayer.containerMenu != null) {
                 serverPlayer.closeContainer();
             }
@@ -48,22 +92,189 @@ public class MenuManager {
     }
 
     /**
-     * Re-open all menus.
+     * Get the provider of a player's open menu.
+     *
+     * @param player The player
+     * @return The menu provider, or {@code null} if the player has no menu open
+     */
+    @Nullable
+    public static INamedContainerProvider getOpenMenu(PlayerEntity player) {
+        return menusByPlayer.get(player.getUUID());
+    }
+
+    /**
+     * Get the number of open menus.
+     *
+     * @return Open menu count
+     */
+    public static int getOpenMenuCount() {
+        return menusByPlayer.size();
+    }
+
+    /**
+     * Re-open all menus. The menus are re-opened over the following ticks, at most
+     * {@link #setRefreshesPerTick(int)} per tick, so refreshing many menus at once does not cause a lag spike.
      */
     public static void refreshAllMenus() {
-        for (ServerPlayerEntity player : openMenus.keySet()) {
-            INamedContainerProvider container = openMenus.get(player);
-            MenuManager.closeMenu(player);
-            MenuManager.openMenu(player, container);
+        for (UUID playerId : menusByPlayer.keySet()) {
+            if (queuedRefreshes.add(playerId)) {
+                pendingRefreshes.add(playerId);
+            }
+        }
+    }
+
+    /**
+     * Set how many menus {@link #refreshAllMenus()} re-opens per tick.
+     *
+     * @param count Maximum number of menus to re-open per tick
+     */
+    public static void setRefreshesPerTick(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Refreshes per tick must be greater than 0. Provided count: " + count);
         }
+        refreshesPerTick = count;
+    }
+
+    /**
+     * Enable or disable menu pooling. While enabled, the item handler and slots of a closed menu are reused by the
+     * next menu of the same size, and a player's inventory slots are reused by the player's next menu, so players
+     * flipping between menus do not allocate them again. Only the slots holding items are emptied on reuse.
+     *
+     * <p>A pooled menu gives up its slots when it is closed. The menu's methods no longer change the slots after that,
+     * but code writing to its item handler directly must not keep using the menu.
+     *
+     * @param enabled {@code true} to pool menu slot structures
+     */
+    public static void setPooling(boolean enabled) {
+        pooling = enabled;
+        if (!enabled) {
+            MenuPool.clear();
+        }
+    }
+
+    public static boolean isPooling() {
+        return pooling;
     }
 
     /**
      * Close all open menus.
      */
     public static void closeAllMenus() {
-        for (ServerPlayerEntity player : openMenus.keySet()) {
-            MenuManager.closeMenu(player);
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if (server == null) {
+            menusByPlayer.clear();
+            return;
+        }
+        for (UUID playerId : menusByPlayer.keySet()) {
+            ServerPlayerEntity player = server.getPlayerList().getPlayer(playerId);
+            if (player != null) {
+                MenuManager.closeMenu(player);
+            } else {
+                menusByPlayer.remove(playerId);
+            }
+        }
+    }
+
+    /**
+     * Forget the menu of a player whose menu container was removed.
+     *
+     * @param player The player
+     */
+    static void menuClosed(PlayerEntity player) {
+        menusByPlayer.remove(player.getUUID());
+    }
+
+    /**
+     * Start updating the live slots of a menu every tick.
+     *
+     * @param menu A menu with live slots
+     */
+    static void trackLiveMenu(MenuBase menu) {
+        liveMenus.add(menu);
+    }
+
+    /**
+     * Update the live slots of all open menus at the start of the tick, so the changes go out with the players'
+     * regular sync during the tick. Re-open the next batch of queued menus at the end of the tick.
+     *
+     * @param event Event
+     */
+    @SubscribeEvent
+    public static void onTick(TickEvent.ServerTickEvent event) {
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if (event.phase == TickEvent.Phase.START) {
+            if (!liveMenus.isEmpty() && server != null) {
+                MenuManager.updateLiveMenus(server.getTickCount());
+            }
+            return;
+        }
+        if (pendingRefreshes.isEmpty()) {
+            return;
+        }
+
+        UUID playerId;
+        for (int count = 0; count < refreshesPerTick && (playerId = pendingRefreshes.poll()) != null; count++) {
+            queuedRefreshes.remove(playerId);
+            INamedContainerProvider menuProvider = menusByPlayer.get(playerId);
+            ServerPlayerEntity player = server != null ? server.getPlayerList().getPlayer(playerId) : null;
+            if (menuProvider != null && player != null) {
+                MenuManager.closeMenu(player);
+                MenuManager.openMenu(player, menuProvider);
+            }
+        }
+    }
+
+    private static void updateLiveMenus(int tick) {
+        Iterator<MenuBase> iterator = liveMenus.iterator();
+        while (iterator.hasNext()) {
+            if (!iterator.next().updateLiveSlots(tick)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Drop the menu of a player that logged out.
+     *
+     * @param event Event
+     */
+    @SubscribeEvent
+    public static void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
+        UUID playerId = event.getPlayer().getUUID();
+        menusByPlayer.remove(playerId);
+        MenuPool.forgetPlayer(playerId);
+        if (queuedRefreshes.remove(playerId)) {
+            pendingRefreshes.remove(playerId);
+        }
+    }
+
+    /**
+     * The open menus keyed by the entities of the online players, see {@link #openMenus}.
+     */
+    private static final class OpenMenusView extends AbstractMap<ServerPlayerEntity, INamedContainerProvider> {
+        @Override
+        public INamedContainerProvider get(Object key) {
+            return key instanceof PlayerEntity ? menusByPlayer.get(((PlayerEntity) key).getUUID()) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return this.get(key) != null;
+        }
+
+        @Override
+        public Set<Entry<ServerPlayerEntity, INamedContainerProvider>> entrySet() {
+            Map<ServerPlayerEntity, INamedContainerProvider> menus = new HashMap<>();
+            MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+            if (server != null) {
+                menusByPlayer.forEach((playerId, menuProvider) -> {
+                    ServerPlayerEntity player = server.getPlayerList().getPlayer(playerId);
+                    if (player != null) {
+                        menus.put(player, menuProvider);
+                    }
+                });
+            }
+            return Collections.unmodifiableMap(menus).entrySet();
         }
     }
 }
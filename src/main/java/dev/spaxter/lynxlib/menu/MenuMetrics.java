@@ -0,0 +1,89 @@
+package dev.spaxter.lynxlib.menu;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+
+/**
+ * Metrics of inventory menus, grouped by menu class: how long menus take to open, how long click handlers run, and
+ * how many refreshes and slot packets they cause.
+ *
+ * <p>Recording is disabled by default. While disabled, menus only check a flag. Menus hold a reference to the
+ * statistics of their class, so recording is a few array writes and does not allocate. Statistics are recorded on the
+ * server thread.
+ */
+public class MenuMetrics {
+    private static final Map<Class<?>, MenuStats> statsByClass = new ConcurrentHashMap<>();
+    private static volatile boolean enabled = false;
+
+    /**
+     * Enable or disable recording. Recording is disabled by default.
+     *
+     * @param enable Whether to record metrics
+     */
+    public static void setEnabled(boolean enable) {
+        enabled = enable;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Get the number of closed menus' slot structures waiting in the pool, see
+     * {@link MenuManager#setPooling(boolean)}.
+     *
+     * @return Pooled slot structure count
+     */
+    public static int getPooledMenuCount() {
+        return MenuPool.getPooledCount();
+    }
+
+    /**
+     * Get the number of menus that were created with pooled slot structures instead of new ones.
+     *
+     * @return Reuse count
+     */
+    public static long getPoolReuseCount() {
+        return MenuPool.getReuseCount();
+    }
+
+    /**
+     * Get the statistics of a menu class.
+     *
+     * @param menuClass The menu class
+     * @return The statistics, or {@code null} if nothing was recorded for the class
+     */
+    @Nullable
+    public static MenuStats getMenuStats(Class<?> menuClass) {
+        return statsByClass.get(menuClass);
+    }
+
+    /**
+     * Get the menu classes with the slowest single click handler run.
+     *
+     * @param limit Maximum number of classes to return
+     * @return Statistics of the slowest menu classes, slowest first
+     */
+    public static List<MenuStats> getSlowestMenus(int limit) {
+        List<MenuStats> stats = new ArrayList<>(statsByClass.values());
+        stats.sort(Comparator.comparingLong(MenuStats::getMaxClickNanos).reversed());
+        return stats.subList(0, Math.min(limit, stats.size()));
+    }
+
+    /**
+     * Forget everything recorded so far.
+     */
+    public static void reset() {
+        for (MenuStats stats : statsByClass.values()) {
+            stats.reset();
+        }
+    }
+
+    static MenuStats statsFor(Class<?> menuClass) {
+        return statsByClass.computeIfAbsent(menuClass, MenuStats::new);
+    }
+}
@@ -0,0 +1,139 @@
+package dev.spaxter.lynxlib.menu;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import javax.annotation.Nullable;
+import net.minecraft.entity.player.PlayerInventory;
+import net.minecraft.inventory.container.Slot;
+
+/**
+ * Pool of the slot structures of closed menus, used when pooling is enabled with
+ * {@link MenuManager#setPooling(boolean)}.
+ *
+ * <p>The containers themselves can not be reused, since every opened container needs a new window ID. What a new menu
+ * takes from the pool are the parts that are the same for every menu of its size: the item handler and the menu slots,
+ * kept by menu size, and the player inventory slots, kept per player.
+ */
+final class MenuPool {
+    private static final int MAX_POOLED_PER_SIZE = 16;
+
+    private static final Map<Integer, ArrayDeque<MenuSlots>> menuSlots = new HashMap<>();
+    private static final Map<UUID, PlayerSlots> playerSlots = new HashMap<>();
+    private static int pooledMenuSlots;
+    private static long reuseCount;
+
+    private MenuPool() {
+    }
+
+    /**
+     * The item handler and slots of a menu of one size.
+     */
+    static final class MenuSlots {
+        final int columns;
+        final int rows;
+        final MenuBase.MenuItemHandler handler;
+        final Slot[] slots;
+
+        MenuSlots(int columns, int rows, MenuBase.MenuItemHandler handler, Slot[] slots) {
+            this.columns = columns;
+            this.rows = rows;
+            this.handler = handler;
+            this.slots = slots;
+        }
+    }
+
+    /**
+     * The slots of a player's inventory, valid as long as the player keeps the same inventory.
+     */
+    static final class PlayerSlots {
+        final PlayerInventory inventory;
+        final Slot[] slots;
+
+        PlayerSlots(PlayerInventory inventory, Slot[] slots) {
+            this.inventory = inventory;
+            this.slots = slots;
+        }
+    }
+
+    /**
+     * Take the slot structure of a closed menu of the given size.
+     *
+     * @return The emptied slot structure, or {@code null} if none is pooled
+     */
+    @Nullable
+    static synchronized MenuSlots acquireMenuSlots(int columns, int rows) {
+        ArrayDeque<MenuSlots> pooled = menuSlots.get(sizeKey(columns, rows));
+        MenuSlots slots = pooled != null ? pooled.poll() : null;
+        if (slots != null) {
+            pooledMenuSlots--;
+            reuseCount++;
+        }
+        return slots;
+    }
+
+    /**
+     * Take the inventory slots of a player, if they were created for the player's current inventory.
+     *
+     * @return The slots, or {@code null} if none are pooled
+     */
+    @Nullable
+    static synchronized PlayerSlots acquirePlayerSlots(PlayerInventory inventory) {
+        PlayerSlots slots = playerSlots.remove(inventory.player.getUUID());
+        return slots != null && slots.inventory == inventory ? slots : null;
+    }
+
+    /**
+     * Return the slot structures of a closed menu. The menu slots are emptied so they do not keep the menu's items
+     * alive while pooled.
+     */
+    static synchronized void release(MenuSlots slots, PlayerSlots inventorySlots) {
+        playerSlots.put(inventorySlots.inventory.player.getUUID(), inventorySlots);
+
+        ArrayDeque<MenuSlots> pooled = menuSlots.computeIfAbsent(sizeKey(slots.columns, slots.rows),
+            key -> new ArrayDeque<>());
+        if (pooled.size() < MAX_POOLED_PER_SIZE) {
+            slots.handler.reset();
+            pooled.push(slots);
+            pooledMenuSlots++;
+        }
+    }
+
+    /**
+     * Drop the pooled inventory slots of a player.
+     *
+     * @param playerId UUID of the player
+     */
+    static synchronized void forgetPlayer(UUID playerId) {
+        playerSlots.remove(playerId);
+    }
+
+    static synchronized void clear() {
+        menuSlots.clear();
+        playerSlots.clear();
+        pooledMenuSlots = 0;
+    }
+
+    /**
+     * Get the number of pooled menu slot structures.
+     *
+     * @return Pooled structure count
+     */
+    static synchronized int getPooledCount() {
+        return pooledMenuSlots;
+    }
+
+    /**
+     * Get the number of menus that were created with pooled slot structures.
+     *
+     * @return Reuse count
+     */
+    static synchronized long getReuseCount() {
+        return reuseCount;
+    }
+
+    private static int sizeKey(int columns, int rows) {
+        return columns << 16 | rows;
+    }
+}
@@ -1,6 +1,6 @@
 package dev.spaxter.lynxlib.menu;
 
-import dev.spaxter.lynxlib.common.ColoredTextComponent;
+import dev.spaxter.lynxlib.chat.Messenger;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import net.minecraft.entity.player.PlayerEntity;
@@ -22,7 +22,7 @@ public class MenuProvider implements INamedContainerProvider {
     @Nonnull
     @Override
     public ITextComponent getDisplayName() {
-        return new ColoredTextComponent(this.title);
+        return Messenger.component(this.title);
     }
 
     @Nullable
@@ -0,0 +1,132 @@
+package dev.spaxter.lynxlib.menu;
+
+import dev.spaxter.lynxlib.common.Histogram;
+
+/**
+ * Statistics of all menus of one class, see {@link MenuMetrics}.
+ */
+public class MenuStats {
+    private final Class<?> menuClass;
+    private final Histogram openLatencies = new Histogram();
+    private final Histogram clickRuntimes = new Histogram();
+    private long refreshCount;
+    private long slotPacketCount;
+    private long fullResyncCount;
+
+    MenuStats(Class<?> menuClass) {
+        this.menuClass = menuClass;
+    }
+
+    void recordOpen(long latencyNanos) {
+        this.openLatencies.record(latencyNanos);
+    }
+
+    void recordClick(long runtimeNanos) {
+        this.clickRuntimes.record(runtimeNanos);
+    }
+
+    void recordRefresh() {
+        this.refreshCount++;
+    }
+
+    void recordSlotPacket() {
+        this.slotPacketCount++;
+    }
+
+    void recordFullResync() {
+        this.fullResyncCount++;
+    }
+
+    public Class<?> getMenuClass() {
+        return this.menuClass;
+    }
+
+    /**
+     * Get the number of menus of this class that were opened.
+     *
+     * @return Open count
+     */
+    public long getOpenCount() {
+        return this.openLatencies.getCount();
+    }
+
+    public long getMaxOpenNanos() {
+        return this.openLatencies.getMax();
+    }
+
+    public double getMeanOpenNanos() {
+        return this.openLatencies.getMean();
+    }
+
+    /**
+     * Get an approximate percentile of the time from {@link MenuManager#openMenu} to the menu being open.
+     *
+     * @param percentile The percentile to get, 0-100
+     * @return The percentile in nanoseconds
+     */
+    public long getOpenPercentileNanos(double percentile) {
+        return this.openLatencies.getPercentile(percentile);
+    }
+
+    /**
+     * Get the number of clicks that ran a click handler.
+     *
+     * @return Click count
+     */
+    public long getClickCount() {
+        return this.clickRuntimes.getCount();
+    }
+
+    public long getMaxClickNanos() {
+        return this.clickRuntimes.getMax();
+    }
+
+    public double getMeanClickNanos() {
+        return this.clickRuntimes.getMean();
+    }
+
+    /**
+     * Get an approximate percentile of the click handler runtime.
+     *
+     * @param percentile The percentile to get, 0-100
+     * @return The percentile in nanoseconds
+     */
+    public long getClickPercentileNanos(double percentile) {
+        return this.clickRuntimes.getPercentile(percentile);
+    }
+
+    /**
+     * Get the number of refreshes requested by clicks.
+     *
+     * @return Refresh count
+     */
+    public long getRefreshCount() {
+        return this.refreshCount;
+    }
+
+    /**
+     * Get the number of single slot packets sent to players.
+     *
+     * @return Packet count
+     */
+    public long getSlotPacketCount() {
+        return this.slotPacketCount;
+    }
+
+    /**
+     * Get the number of times the whole container was resent to a player.
+     *
+     * @return Resync count
+     */
+    public long getFullResyncCount() {
+        return this.fullResyncCount;
+    }
+
+    void reset() {
+        this.openLatencies.reset();
+        this.clickRuntimes.reset();
+        this.refreshCount = 0;
+        this.slotPacketCount = 0;
+        this.fullResyncCount = 0;
+    }
+}
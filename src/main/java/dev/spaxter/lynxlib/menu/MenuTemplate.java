@@ -0,0 +1,212 @@
+package dev.spaxter.lynxlib.menu;
+
+import dev.spaxter.lynxlib.common.ItemUtil;
+import java.util.Arrays;
+import javax.annotation.Nullable;
+import net.minecraft.inventory.container.ClickType;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.SoundEvent;
+
+/**
+ * Precomputed layout of a menu: its items, click handlers and click sound. A template is built once and can be applied
+ * to any number of {@link MenuBase} instances of the same size with {@link MenuBase#applyTemplate(MenuTemplate)}.
+ *
+ * <p>Applying a template does no NBT or JSON work. The menus share the template's item stacks until a slot is written
+ * to, so the stacks of a template must never be modified in place, see {@link MenuBase#getItemForUpdate(int)}.
+ */
+public class MenuTemplate {
+    private final int columns;
+    private final int rows;
+    private final ItemStack[] items;
+    private final IClickHandlerCallback[] clickHandlers;
+    @Nullable
+    private final IClickHandlerCallback defaultClickHandler;
+    @Nullable
+    private final SoundEvent clickSound;
+
+    private MenuTemplate(Builder builder) {
+        this.columns = builder.columns;
+        this.rows = builder.rows;
+        this.items = builder.items.clone();
+        this.clickHandlers = builder.clickHandlers.clone();
+        this.defaultClickHandler = builder.defaultClickHandler;
+        this.clickSound = builder.clickSound;
+
+        if (builder.background != null) {
+            for (int i = 0; i < this.items.length; i++) {
+                if (this.items[i] == null) {
+                    this.items[i] = builder.background;
+                }
+            }
+        }
+    }
+
+    public int getColumns() {
+        return this.columns;
+    }
+
+    public int getRows() {
+        return this.rows;
+    }
+
+    /**
+     * Copy the template into a menu.
+     *
+     * @param menu The menu to apply the template to
+     * @throws IllegalArgumentException If the menu does not have the size of the template
+     */
+    void applyTo(MenuBase menu) {
+        if (menu.columns != this.columns || menu.rows != this.rows) {
+            throw new IllegalArgumentException(
+                "Menu template of size " + this.columns + "x" + this.rows + " can not be applied to a menu of size "
+                    + menu.columns + "x" + menu.rows);
+        }
+        menu.applyLayout(this.items, this.clickHandlers, this.defaultClickHandler, this.clickSound);
+    }
+
+    /**
+     * Builder for menu templates. All the per-item work, such as naming the background item, happens here.
+     */
+    public static class Builder {
+        private final int columns;
+        private final int rows;
+        private final ItemStack[] items;
+        private final IClickHandlerCallback[] clickHandlers;
+        @Nullable
+        private ItemStack background;
+        @Nullable
+        private IClickHandlerCallback defaultClickHandler;
+        @Nullable
+        private SoundEvent clickSound;
+
+        /**
+         * Start building a template for menus of a given size.
+         *
+         * @param columns Number of columns of the menu
+         * @param rows    Number of rows of the menu
+         */
+        public Builder(int columns, int rows) {
+            this.columns = columns;
+            this.rows = rows;
+            this.items = new ItemStack[columns * rows];
+            this.clickHandlers = new IClickHandlerCallback[columns * rows * MenuBase.CLICK_TYPES];
+        }
+
+        /**
+         * Set an item at the given slot index.
+         *
+         * @param item The item to set
+         * @param slot The slot index
+         * @return This builder
+         * @throws IndexOutOfBoundsException If the slot index is out of bounds for the menu
+         */
+        public Builder setItemAt(ItemStack item, int slot) {
+            this.items[this.checkSlot(slot)] = item;
+            return this;
+        }
+
+        /**
+         * Set an item at the given row and column.
+         *
+         * @param item The item to set
+         * @param row  Row number
+         * @param col  Column number
+         * @return This builder
+         * @throws IndexOutOfBoundsException If the row or column is out of bounds for the menu
+         */
+        public Builder setItemAt(ItemStack item, int row, int col) {
+            return this.setItemAt(item, (row - 1) * this.columns + (col - 1));
+        }
+
+        /**
+         * Set the background item filling all slots without an item. The item is named once, here.
+         *
+         * @param item The item to use as the background
+         * @return This builder
+         */
+        public Builder setBackground(Item item) {
+            ItemStack itemStack = new ItemStack(item);
+            ItemUtil.setItemName(itemStack, "");
+            this.background = itemStack;
+            return this;
+        }
+
+        /**
+         * Set the background item filling all slots without an item.
+         *
+         * @param item The item to use as the background
+         * @return This builder
+         */
+        public Builder setBackground(ItemStack item) {
+            this.background = item;
+            return this;
+        }
+
+        /**
+         * Set a click callback function for every click type on a slot.
+         *
+         * @param slot     The slot to set the click handler for
+         * @param function The function to run on click
+         * @return This builder
+         */
+        public Builder setClickHandler(int slot, IClickHandlerCallback function) {
+            int start = this.checkSlot(slot) * MenuBase.CLICK_TYPES;
+            Arrays.fill(this.clickHandlers, start, start + MenuBase.CLICK_TYPES, function);
+            return this;
+        }
+
+        /**
+         * Set a click callback function for one type of click on a slot.
+         *
+         * @param slot      The slot to set the click handler for
+         * @param clickType The type of click to handle
+         * @param function  The function to run on click
+         * @return This builder
+         */
+        public Builder setClickHandler(int slot, ClickType clickType, IClickHandlerCallback function) {
+            this.clickHandlers[this.checkSlot(slot) * MenuBase.CLICK_TYPES + clickType.ordinal()] = function;
+            return this;
+        }
+
+        /**
+         * Set the click callback function run for clicks on slots that have no handler for the click.
+         *
+         * @param function The function to run on click
+         * @return This builder
+         */
+        public Builder setDefaultClickHandler(@Nullable IClickHandlerCallback function) {
+            this.defaultClickHandler = function;
+            return this;
+        }
+
+        /**
+         * Set the sound to play when a player clicks a clickable slot.
+         *
+         * @param sound The sound to play
+         * @return This builder
+         */
+        public Builder setClickSound(SoundEvent sound) {
+            this.clickSound = sound;
+            return this;
+        }
+
+        /**
+         * Build the template. The builder can be changed and built again afterwards without affecting this template.
+         *
+         * @return The template
+         */
+        public MenuTemplate build() {
+            return new MenuTemplate(this);
+        }
+
+        private int checkSlot(int slot) {
+            if (slot < 0 || slot >= this.items.length) {
+                throw new IndexOutOfBoundsException(
+                    "The slot index " + slot + " is out of bounds for the template. Maximum allowed index: "
+                        + (this.items.length - 1));
+            }
+            return slot;
+        }
+    }
+}
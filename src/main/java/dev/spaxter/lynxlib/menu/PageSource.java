@@ -0,0 +1,26 @@
+package dev.spaxter.lynxlib.menu;
+
+import java.util.List;
+
+/**
+ * Data source of a {@link PaginatedMenu}. Only the entries of the pages a player actually looks at are requested.
+ *
+ * @param <T> Type of the entries
+ */
+public interface PageSource<T> {
+    /**
+     * Get the total number of entries.
+     *
+     * @return Entry count
+     */
+    int size();
+
+    /**
+     * Get a range of entries.
+     *
+     * @param offset Index of the first entry to get
+     * @param limit  Maximum number of entries to get
+     * @return The entries, fewer than {@code limit} at the end of the data
+     */
+    List<T> getEntries(int offset, int limit);
+}
@@ -0,0 +1,295 @@
+package dev.spaxter.lynxlib.menu;
+
+import dev.spaxter.lynxlib.common.ItemUtil;
+import dev.spaxter.lynxlib.task.TaskScheduler;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.entity.player.PlayerInventory;
+import net.minecraft.inventory.container.ContainerType;
+import net.minecraft.inventory.container.IContainerListener;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+
+/**
+ * Menu showing a long list of entries one page at a time. The bottom row holds the previous and next page controls,
+ * the rows above it show the entries of the current page.
+ *
+ * <p>Entries are requested from a {@link PageSource} and turned into item stacks only when their page is needed. The
+ * first page is rendered when the menu is opened, after the subclass constructor has run, or on the first call to
+ * {@link #setPage(int)}. The pages next to the shown one are rendered ahead on the following tick, and the last few
+ * pages are kept in a small LRU cache, so paging back and forth does not wait for rendering. Switching pages updates
+ * the slots in place and sends them in a single container packet, the container is not reopened.
+ *
+ * @param <T> Type of the entries
+ */
+public abstract class PaginatedMenu<T> extends MenuBase {
+    private static final int DEFAULT_CACHED_PAGES = 4;
+
+    @Nullable
+    private static ItemStack defaultPreviousButton;
+    @Nullable
+    private static ItemStack defaultNextButton;
+
+    private final PageSource<T> source;
+    private final Function<T, ItemStack> renderer;
+    private final int pageSize;
+    private final int previousSlot;
+    private final int nextSlot;
+    private final Map<Integer, Page<T>> pageCache;
+    private ItemStack previousButton;
+    private ItemStack nextButton;
+    private ItemStack filler = ItemStack.EMPTY;
+    @Nullable
+    private EntryClickHandler<T> entryClickHandler;
+    private int page = -1;
+    @Nullable
+    private Page<T> currentPage;
+    private boolean prefetchQueued;
+
+    /**
+     * Handler of clicks on the entries of a paginated menu.
+     *
+     * @param <T> Type of the entries
+     */
+    public interface EntryClickHandler<T> {
+        void operation(T entry, PlayerEntity player);
+    }
+
+    /**
+     * The entries of a page and their rendered stacks.
+     */
+    private static class Page<T> {
+        final List<T> entries;
+        final ItemStack[] stacks;
+
+        Page(List<T> entries, ItemStack[] stacks) {
+            this.entries = entries;
+            this.stacks = stacks;
+        }
+    }
+
+    @SuppressWarnings("checkstyle:MissingJavadocMethod")
+    public PaginatedMenu(final ContainerType<?> containerType, PlayerInventory playerInventory, final int id,
+        final int columns, final int rows, PageSource<T> source, Function<T, ItemStack> renderer) {
+        super(containerType, playerInventory, id, columns, rows);
+        if (rows < 2) {
+            throw new IllegalArgumentException("A paginated menu needs at least 2 rows. Provided rows: " + rows);
+        }
+
+        this.source = source;
+        this.renderer = renderer;
+        this.pageSize = columns * (rows - 1);
+        this.previousSlot = this.pageSize;
+        this.nextSlot = this.pageSize + columns - 1;
+        this.pageCache = new LinkedHashMap<Integer, Page<T>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Page<T>> eldest) {
+                return this.size() > DEFAULT_CACHED_PAGES;
+            }
+        };
+
+        this.previousButton = getDefaultPreviousButton().copy();
+        this.nextButton = getDefaultNextButton().copy();
+
+        for (int slot = 0; slot < this.pageSize; slot++) {
+            final int index = slot;
+            this.setClickHandler(slot, (clickedSlot, player) -> this.onEntryClicked(index, player));
+        }
+        this.setClickHandler(this.previousSlot, (clickedSlot, player) -> this.previousPage());
+        this.setClickHandler(this.nextSlot, (clickedSlot, player) -> this.nextPage());
+    }
+
+    /**
+     * Set the handler run when a player clicks an entry.
+     *
+     * @param handler The handler
+     */
+    public void setEntryClickHandler(@Nullable EntryClickHandler<T> handler) {
+        this.entryClickHandler = handler;
+    }
+
+    /**
+     * Set the items of the page controls.
+     *
+     * @param previousButton Item of the previous page control
+     * @param nextButton     Item of the next page control
+     */
+    public void setPageButtons(ItemStack previousButton, ItemStack nextButton) {
+        this.previousButton = previousButton;
+        this.nextButton = nextButton;
+        if (this.page >= 0) {
+            this.updateControls();
+        }
+    }
+
+    /**
+     * Set the item shown in the slots of the page without an entry, and in place of page controls that can not be
+     * used.
+     *
+     * @param filler The filler item, e.g. a named background pane
+     */
+    public void setFiller(ItemStack filler) {
+        this.filler = filler;
+        if (this.page >= 0) {
+            this.showPage(this.page, true);
+        }
+    }
+
+    /**
+     * Get the current page.
+     *
+     * @return The page index, starting at 0, or -1 before the first page is shown
+     */
+    public int getPage() {
+        return this.page;
+    }
+
+    /**
+     * Get the number of pages.
+     *
+     * @return Page count, at least 1
+     */
+    public int getPageCount() {
+        return Math.max(1, (this.source.size() + this.pageSize - 1) / this.pageSize);
+    }
+
+    /**
+     * Show a page. The page number is clamped to the existing pages.
+     *
+     * @param page The page index, starting at 0
+     */
+    public void setPage(int page) {
+        this.showPage(Math.max(0, Math.min(page, this.getPageCount() - 1)), false);
+    }
+
+    public void nextPage() {
+        this.setPage(this.page + 1);
+    }
+
+    public void previousPage() {
+        this.setPage(this.page - 1);
+    }
+
+    /**
+     * Drop the cached pages and show the current page again, e.g. after the data source changed.
+     */
+    public void invalidate() {
+        this.pageCache.clear();
+        if (this.page >= 0) {
+            this.showPage(Math.max(0, Math.min(this.page, this.getPageCount() - 1)), true);
+        }
+    }
+
+    private void showPage(int page, boolean force) {
+        if (page == this.page && !force) {
+            return;
+        }
+
+        Page<T> next = this.pageCache.get(page);
+        if (next == null) {
+            next = this.renderPage(page);
+            this.pageCache.put(page, next);
+        }
+
+        // The cached stacks and the filler are shown in several slots, so the slots are marked shared
+        for (int slot = 0; slot < this.pageSize; slot++) {
+            ItemStack stack = slot < next.stacks.length ? next.stacks[slot] : this.filler;
+            if (force || this.currentPage == null || this.itemStackHandler.getStackInSlot(slot) != stack) {
+                this.setSharedItemAt(stack, slot);
+            }
+        }
+        this.page = page;
+        this.currentPage = next;
+        this.updateControls();
+        // A page switch changes most of the menu, send one container packet instead of a packet per changed slot
+        this.requestFullResync();
+        this.queuePrefetch();
+    }
+
+    /**
+     * Render the pages next to the current one on the next tick, so switching to them does not wait for the source.
+     */
+    private void queuePrefetch() {
+        if (this.prefetchQueued) {
+            return;
+        }
+        this.prefetchQueued = true;
+        TaskScheduler.mainThread().execute(() -> {
+            this.prefetchQueued = false;
+            if (this.valid) {
+                this.prefetch(this.page - 1);
+                this.prefetch(this.page + 1);
+            }
+        });
+    }
+
+    private void prefetch(int page) {
+        if (page >= 0 && page < this.getPageCount() && !this.pageCache.containsKey(page)) {
+            this.pageCache.put(page, this.renderPage(page));
+        }
+    }
+
+    private Page<T> renderPage(int page) {
+        List<T> entries = this.source.getEntries(page * this.pageSize, this.pageSize);
+        if (entries == null) {
+            entries = Collections.emptyList();
+        }
+        ItemStack[] stacks = new ItemStack[Math.min(entries.size(), this.pageSize)];
+        for (int i = 0; i < stacks.length; i++) {
+            stacks[i] = this.renderer.apply(entries.get(i));
+        }
+        return new Page<>(entries, stacks);
+    }
+
+    private void updateControls() {
+        this.setControl(this.previousSlot, this.page > 0 ? this.previousButton : this.filler);
+        this.setControl(this.nextSlot, this.page < this.getPageCount() - 1 ? this.nextButton : this.filler);
+    }
+
+    private void setControl(int slot, ItemStack stack) {
+        if (this.itemStackHandler.getStackInSlot(slot) != stack) {
+            this.setSharedItemAt(stack, slot);
+        }
+    }
+
+    private static ItemStack getDefaultPreviousButton() {
+        if (defaultPreviousButton == null) {
+            defaultPreviousButton = createButton("&ePrevious page");
+        }
+        return defaultPreviousButton;
+    }
+
+    private static ItemStack getDefaultNextButton() {
+        if (defaultNextButton == null) {
+            defaultNextButton = createButton("&eNext page");
+        }
+        return defaultNextButton;
+    }
+
+    private static ItemStack createButton(String name) {
+        ItemStack itemStack = new ItemStack(Items.ARROW);
+        ItemUtil.setItemName(itemStack, name);
+        return itemStack;
+    }
+
+    @Override
+    public void addSlotListener(@Nonnull IContainerListener listener) {
+        // Show the first page before the container is sent to the player
+        if (this.page < 0) {
+            this.setPage(0);
+        }
+        super.addSlotListener(listener);
+    }
+
+    private void onEntryClicked(int index, PlayerEntity player) {
+        if (this.entryClickHandler != null && this.currentPage != null && index < this.currentPage.stacks.length) {
+            this.entryClickHandler.operation(this.currentPage.entries.get(index), player);
+        }
+    }
+}
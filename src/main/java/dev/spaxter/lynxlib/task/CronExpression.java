@@ -0,0 +1,203 @@
+package dev.spaxter.lynxlib.task;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * Standard five field cron expression: {@code minute hour day-of-month month day-of-week}.
+ *
+ * <p>Each field accepts {@code *}, single values, ranges ({@code 1-5}), steps ({@code *}{@code /15}, {@code 0-30/10})
+ * and comma separated lists of those. Months and days of the week may also be given by their three letter English
+ * names, and both {@code 0} and {@code 7} mean Sunday. As in Vixie cron, if both the day of the month and the day of
+ * the week are restricted, a day matching either of them matches. A field starting with {@code *}, such as
+ * {@code *}{@code /2}, does not count as restricted, so {@code 0 0 *}{@code /2 * MON} fires on Mondays that fall on
+ * an odd day of the month. The macros {@code @yearly}, {@code @monthly}, {@code @weekly}, {@code @daily} and
+ * {@code @hourly} are supported as well.
+ */
+public class CronExpression {
+    private static final String[] MONTH_NAMES = {
+        "JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"
+    };
+    private static final String[] DAY_NAMES = {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"};
+
+    /**
+     * Upper bound on how far ahead to search, so expressions that never match (e.g. {@code 0 0 31 2 *}) terminate.
+     */
+    private static final int MAX_YEARS_AHEAD = 8;
+
+    private final String expression;
+    private final long minutes;
+    private final long hours;
+    private final long daysOfMonth;
+    private final long months;
+    private final long daysOfWeek;
+    private final boolean dayOfMonthRestricted;
+    private final boolean dayOfWeekRestricted;
+    private final ZoneId zone;
+
+    /**
+     * Parse a cron expression evaluated in the system time zone.
+     *
+     * @param expression The cron expression, e.g. {@code "0 3 * * *"} for every day at 3:00
+     * @throws IllegalArgumentException If the expression can not be parsed
+     */
+    public CronExpression(String expression) {
+        this(expression, ZoneId.systemDefault());
+    }
+
+    /**
+     * Parse a cron expression.
+     *
+     * @param expression The cron expression, e.g. {@code "0 3 * * *"} for every day at 3:00
+     * @param zone       The time zone to evaluate the expression in
+     * @throws IllegalArgumentException If the expression can not be parsed
+     */
+    public CronExpression(String expression, ZoneId zone) {
+        this.expression = expression;
+        this.zone = zone;
+
+        String[] fields = expandMacro(expression.trim()).split("\\s+");
+        if (fields.length != 5) {
+            throw new IllegalArgumentException(
+                "Cron expression must have 5 fields, got " + fields.length + ": '" + expression + "'");
+        }
+
+        this.minutes = parseField(fields[0], 0, 59, null);
+        this.hours = parseField(fields[1], 0, 23, null);
+        this.daysOfMonth = parseField(fields[2], 1, 31, null);
+        this.months = parseField(fields[3], 1, 12, MONTH_NAMES);
+        long dayOfWeekBits = parseField(fields[4], 0, 7, DAY_NAMES);
+        // 7 is an alias for Sunday
+        this.daysOfWeek = (dayOfWeekBits | (dayOfWeekBits >>> 7)) & 0x7F;
+        this.dayOfMonthRestricted = !fields[2].startsWith("*");
+        this.dayOfWeekRestricted = !fields[4].startsWith("*");
+    }
+
+    /**
+     * Get the first time matching the expression strictly after a given time.
+     *
+     * @param afterMillis Unix timestamp in milliseconds to search from
+     * @return The next matching time as a unix timestamp in milliseconds, or {@code -1} if the expression does not
+     *     match any time in the next {@value #MAX_YEARS_AHEAD} years
+     */
+    public long nextAfter(long afterMillis) {
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(afterMillis), this.zone)
+            .truncatedTo(ChronoUnit.MINUTES)
+            .plusMinutes(1);
+        LocalDateTime limit = time.plusYears(MAX_YEARS_AHEAD);
+
+        while (time.isBefore(limit)) {
+            if (!has(this.months, time.getMonthValue())) {
+                time = time.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS).plusMonths(1);
+            } else if (!this.matchesDay(time)) {
+                time = time.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+            } else if (!has(this.hours, time.getHour())) {
+                time = time.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+            } else if (!has(this.minutes, time.getMinute())) {
+                time = time.plusMinutes(1);
+            } else {
+                return time.atZone(this.zone).toInstant().toEpochMilli();
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        return this.expression;
+    }
+
+    private boolean matchesDay(LocalDateTime time) {
+        boolean dayOfMonth = has(this.daysOfMonth, time.getDayOfMonth());
+        boolean dayOfWeek = has(this.daysOfWeek, time.getDayOfWeek().getValue() % 7);
+        if (this.dayOfMonthRestricted && this.dayOfWeekRestricted) {
+            return dayOfMonth || dayOfWeek;
+        }
+        return dayOfMonth && dayOfWeek;
+    }
+
+    private static boolean has(long bits, int value) {
+        return (bits & (1L << value)) != 0;
+    }
+
+    private static String expandMacro(String expression) {
+        switch (expression.toLowerCase(Locale.ROOT)) {
+            case "@yearly":
+            case "@annually":
+                return "0 0 1 1 *";
+            case "@monthly":
+                return "0 0 1 * *";
+            case "@weekly":
+                return "0 0 * * 0";
+            case "@daily":
+            case "@midnight":
+                return "0 0 * * *";
+            case "@hourly":
+                return "0 * * * *";
+            default:
+                return expression;
+        }
+    }
+
+    private static long parseField(String field, int min, int max, String[] names) {
+        long bits = 0;
+        for (String part : field.split(",")) {
+            int step = 1;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = parseValue(part.substring(slash + 1), 1, max, null);
+                part = part.substring(0, slash);
+            }
+
+            int start;
+            int end;
+            if (part.equals("*")) {
+                start = min;
+                end = max;
+            } else {
+                int dash = part.indexOf('-');
+                if (dash >= 0) {
+                    start = parseValue(part.substring(0, dash), min, max, names);
+                    end = parseValue(part.substring(dash + 1), min, max, names);
+                } else {
+                    start = parseValue(part, min, max, names);
+                    end = slash >= 0 ? max : start;
+                }
+            }
+
+            if (start > end) {
+                throw new IllegalArgumentException("Invalid cron range '" + part + "' in field '" + field + "'");
+            }
+            for (int value = start; value <= end; value += step) {
+                bits |= 1L << value;
+            }
+        }
+        return bits;
+    }
+
+    private static int parseValue(String value, int min, int max, String[] names) {
+        if (names != null) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equalsIgnoreCase(value)) {
+                    // Month names start at 1, day names at 0
+                    return i + min;
+                }
+            }
+        }
+
+        int number;
+        try {
+            number = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cron value '" + value + "'", e);
+        }
+        if (number < min || number > max) {
+            throw new IllegalArgumentException(
+                "Cron value " + number + " is out of range. Allowed range: " + min + "-" + max);
+        }
+        return number;
+    }
+}
@@ -0,0 +1,170 @@
+package dev.spaxter.lynxlib.task;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * A task waiting to be run by the {@link TaskScheduler}. Instances are also the nodes of the intrusive
+ * {@link TaskList}s used by the {@link TimingWheel}, and are handed out to callers as their {@link TaskHandle}.
+ *
+ * <p>Apart from {@link #state}, which any thread may change through {@link #transition(State, State)}, and the group
+ * links guarded by the {@link TaskGroup}, the fields of a task are only touched by the server thread once the task has
+ * been handed to the scheduler.
+ */
+class DelayedTask implements TaskHandle {
+    private static final AtomicReferenceFieldUpdater<DelayedTask, State> STATE =
+        AtomicReferenceFieldUpdater.newUpdater(DelayedTask.class, State.class, "state");
+    private static final AtomicReferenceFieldUpdater<DelayedTask, TaskGroup> GROUP =
+        AtomicReferenceFieldUpdater.newUpdater(DelayedTask.class, TaskGroup.class, "group");
+
+    enum State {
+        PENDING,
+        DONE,
+        CANCELLED
+    }
+
+    final Runnable task;
+    final UUID id;
+
+    /**
+     * Number of ticks between runs of a repeating task, or {@code 0} for a task that runs once.
+     */
+    final long period;
+    final RepeatMode repeatMode;
+
+    /**
+     * Maximum number of missed runs of a {@link RepeatMode#FIXED_RATE} task to make up for when it runs late.
+     */
+    final int maxCatchUp;
+
+    /**
+     * Number of ticks the first run of a repeating task may be pushed back to spread the load, see
+     * {@link LoadSpreader}. The tick of the period the task was placed on is kept in {@link #spreadSlot}.
+     */
+    int spreadWindow;
+    int spreadSlot = -1;
+
+    /**
+     * Time at which the task is due. In ticks for tasks in the timing wheel, see subclasses for other kinds of tasks.
+     */
+    long deadline;
+    volatile State state = State.PENDING;
+    TaskStats stats;
+
+    DelayedTask prev;
+    DelayedTask next;
+    TaskList list;
+
+    /* Position of a wall-clock task in its TaskHeap, -1 while it is not in one */
+    int heapIndex = -1;
+
+    /* Links to other pending tasks scheduled with the same ID */
+    boolean indexed;
+    DelayedTask prevWithId;
+    DelayedTask nextWithId;
+
+    /* Link to the next task submitted from another thread, waiting for the server thread to pick it up */
+    DelayedTask nextSubmitted;
+
+    /* Membership of a task group, claimed through claimGroup() and otherwise guarded by the group's lock */
+    volatile TaskGroup group;
+    DelayedTask prevInGroup;
+    DelayedTask nextInGroup;
+    boolean parked;
+
+    DelayedTask(long deadline, Runnable task, UUID id) {
+        this(deadline, 0, RepeatMode.FIXED_RATE, 0, task, id);
+    }
+
+    DelayedTask(long deadline, long period, RepeatMode repeatMode, int maxCatchUp, Runnable task, UUID id) {
+        this.deadline = deadline;
+        this.period = period;
+        this.repeatMode = repeatMode;
+        this.maxCatchUp = maxCatchUp;
+        this.task = task;
+        this.id = id;
+    }
+
+    /**
+     * Atomically move the task from one state to another.
+     *
+     * @param expected The state the task must be in
+     * @param newState The state to move to
+     * @return {@code true} if the task was in the expected state
+     */
+    boolean transition(State expected, State newState) {
+        return STATE.compareAndSet(this, expected, newState);
+    }
+
+    /**
+     * Atomically make a task that is in no group a member of a group.
+     *
+     * @param group The group, whose lock the caller holds
+     * @return {@code true} if the task was in no group
+     */
+    boolean claimGroup(TaskGroup group) {
+        return GROUP.compareAndSet(this, null, group);
+    }
+
+    /**
+     * Get the tick a repeating task should run at next.
+     *
+     * @param currentTick The tick the task has just run on
+     * @return The next execution tick
+     */
+    long nextDeadline(long currentTick) {
+        if (this.repeatMode == RepeatMode.FIXED_DELAY) {
+            return currentTick + this.period;
+        }
+
+        long next = this.deadline + this.period;
+        if (next <= currentTick) {
+            // Runs were missed while the task was late, skip all but the allowed number of catch-up runs
+            long missed = (currentTick - next) / this.period + 1;
+            if (missed > this.maxCatchUp) {
+                next += (missed - this.maxCatchUp) * this.period;
+            }
+        }
+        return next;
+    }
+
+    @Override
+    public UUID getId() {
+        return this.id;
+    }
+
+    @Override
+    public void setLabel(String label) {
+        this.stats = SchedulerMetrics.statsFor(label);
+    }
+
+    @Override
+    public String getLabel() {
+        return this.stats != null ? this.stats.getLabel() : SchedulerMetrics.UNLABELED;
+    }
+
+    @Override
+    public TaskGroup getGroup() {
+        return this.group;
+    }
+
+    @Override
+    public boolean cancel() {
+        return TaskScheduler.cancel(this);
+    }
+
+    @Override
+    public boolean isPending() {
+        return this.state == State.PENDING;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return this.state == State.CANCELLED;
+    }
+
+    @Override
+    public boolean isDone() {
+        return this.state == State.DONE;
+    }
+}
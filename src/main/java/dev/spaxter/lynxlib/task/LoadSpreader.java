@@ -0,0 +1,78 @@
+package dev.spaxter.lynxlib.task;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Spreads repeating tasks with the same period over the ticks of that period. For every period in use, it counts how
+ * many spread tasks run on each tick of the period, and moves the first run of a new task onto the least loaded tick
+ * within the task's tolerance window. Only used from the server thread.
+ */
+class LoadSpreader {
+    /**
+     * Longest period tracked tick by tick. Longer periods are split into this many slots of equal length, which keeps
+     * the counts small while still spreading tasks that would otherwise run at the same point of their period.
+     */
+    private static final int MAX_TRACKED_PERIOD = 1200;
+
+    private static final Map<Long, int[]> occupancy = new HashMap<>();
+
+    /**
+     * Move the first run of a repeating task onto the least loaded tick in {@code [deadline, deadline + window]}.
+     * Ties go to the earliest tick, so a task is only delayed if that actually spreads the load.
+     *
+     * @param task   A repeating task that has not been stored yet
+     * @param window The tolerance window in ticks, less than the task's period
+     */
+    static void place(DelayedTask task, int window) {
+        int length = (int) Math.min(task.period, MAX_TRACKED_PERIOD);
+        int[] slots = occupancy.computeIfAbsent(task.period, period -> new int[length]);
+
+        // Long periods only have a slot every few ticks, step from slot to slot
+        long step = (task.period + length - 1) / length;
+        long bestOffset = 0;
+        int bestSlot = slotOf(task.deadline, task.period, length);
+        for (long offset = step; offset <= window && slots[bestSlot] > 0; offset += step) {
+            int slot = slotOf(task.deadline + offset, task.period, length);
+            if (slots[slot] < slots[bestSlot]) {
+                bestOffset = offset;
+                bestSlot = slot;
+            }
+        }
+
+        slots[bestSlot]++;
+        task.spreadSlot = bestSlot;
+        task.deadline += bestOffset;
+    }
+
+    /**
+     * Get the slot of a tick, from the tick's phase within the period.
+     */
+    private static int slotOf(long tick, long period, int length) {
+        return (int) (Math.floorMod(tick, period) * length / period);
+    }
+
+    /**
+     * Free the slot of a spread task that will not run again.
+     *
+     * @param task A task placed with {@link #place(DelayedTask, int)}
+     */
+    static void release(DelayedTask task) {
+        if (task.spreadSlot < 0) {
+            return;
+        }
+
+        int[] slots = occupancy.get(task.period);
+        if (slots != null) {
+            slots[task.spreadSlot]--;
+        }
+        task.spreadSlot = -1;
+    }
+
+    /**
+     * Forget all counts, used when the scheduler is reset.
+     */
+    static void clear() {
+        occupancy.clear();
+    }
+}
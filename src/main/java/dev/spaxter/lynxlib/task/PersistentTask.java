@@ -0,0 +1,23 @@
+package dev.spaxter.lynxlib.task;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * A wall-clock task recorded in the {@link TaskJournal}, so it is scheduled again after a server restart. The task is
+ * identified by its key, and runs the handler registered for its type with its payload.
+ */
+class PersistentTask extends WallClockTask {
+    final String key;
+    final String type;
+    final String payload;
+
+    PersistentTask(long deadline, String key, String type, String payload, Consumer<String> handler) {
+        super(deadline, null, () -> handler.accept(payload),
+            UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)));
+        this.key = key;
+        this.type = type;
+        this.payload = payload;
+    }
+}
@@ -0,0 +1,178 @@
+package dev.spaxter.lynxlib.task;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * A chain of stages each item submitted to the pipeline goes through in order, such as "collect data on the server
+ * thread, process it off-thread, apply the result on the server thread".
+ *
+ * <pre>{@code
+ * Pipeline<ServerPlayerEntity, Void> saveStats = Pipeline.<ServerPlayerEntity>builder("save-stats")
+ *     .main("collect", Stats::collect)
+ *     .async("write", Stats::write)
+ *     .main("notify", result -> { ... return null; })
+ *     .build();
+ * saveStats.submit(player);
+ * }</pre>
+ *
+ * <p>Async stages run on the {@link TaskScheduler} worker pool. Items reaching a server thread stage are batched: the
+ * stage processes everything that reached it since the last tick in a single pass at the end of the next tick. A stage
+ * created with {@link PipelineStage#main(String, Function)} can be added to several pipelines with
+ * {@link Builder#then(PipelineStage)}, its batch then holds the items of all of them. Each stage keeps timing
+ * statistics, see {@link #getStages()}.
+ *
+ * @param <I> Type of the items submitted to the pipeline
+ * @param <O> Type of the pipeline result
+ */
+public class Pipeline<I, O> {
+    private final String name;
+    private final List<PipelineStage<?, ?>> stages;
+
+    private Pipeline(String name, List<PipelineStage<?, ?>> stages) {
+        this.name = name;
+        this.stages = Collections.unmodifiableList(stages);
+    }
+
+    /**
+     * Start building a pipeline.
+     *
+     * @param name Name of the pipeline
+     * @param <T>  Type of the items submitted to the pipeline
+     * @return Pipeline builder
+     */
+    public static <T> Builder<T, T> builder(String name) {
+        return new Builder<>(name);
+    }
+
+    /**
+     * Send an item through the pipeline. May be called from any thread.
+     *
+     * @param input The item
+     * @return Future completed with the result of the last stage, or exceptionally with the first error thrown by a
+     *     stage. Completes on the thread that ran the last stage
+     */
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<O> submit(I input) {
+        Job job = new Job(this);
+        job.advance(input, null);
+        return (CompletableFuture<O>) job.result;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Get the stages of the pipeline in order, e.g. to read their timing statistics.
+     *
+     * @return The stages
+     */
+    public List<PipelineStage<?, ?>> getStages() {
+        return this.stages;
+    }
+
+    /**
+     * A single item on its way through a pipeline.
+     */
+    static class Job {
+        final Pipeline<?, ?> pipeline;
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        Object value;
+        int stage = -1;
+
+        Job(Pipeline<?, ?> pipeline) {
+            this.pipeline = pipeline;
+        }
+
+        /**
+         * Move on to the next stage with the result of the current one.
+         *
+         * @param value Result of the current stage
+         * @param error Error thrown by the current stage, {@code null} if it succeeded
+         */
+        void advance(Object value, Throwable error) {
+            if (error != null) {
+                this.result.completeExceptionally(error);
+                return;
+            }
+
+            this.value = value;
+            this.stage++;
+            if (this.stage == this.pipeline.stages.size()) {
+                this.result.complete(value);
+            } else {
+                this.pipeline.stages.get(this.stage).accept(this);
+            }
+        }
+    }
+
+    /**
+     * Builder adding stages to a pipeline one at a time.
+     *
+     * @param <I> Type of the items submitted to the pipeline
+     * @param <O> Type of the output of the last stage added
+     */
+    public static class Builder<I, O> {
+        private final String name;
+        private final List<PipelineStage<?, ?>> stages = new ArrayList<>();
+
+        private Builder(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Add a stage running on the server thread. Items reaching it are processed in one batch per tick.
+         *
+         * @param name     Name of the stage
+         * @param function The work of the stage, may touch the world
+         * @param <N>      Type of the stage output
+         * @return This builder
+         */
+        public <N> Builder<I, N> main(String name, Function<? super O, ? extends N> function) {
+            return this.then(PipelineStage.main(name, function));
+        }
+
+        /**
+         * Add a stage running on the worker pool, off the server thread.
+         *
+         * @param name     Name of the stage
+         * @param function The work of the stage, must not touch the world
+         * @param <N>      Type of the stage output
+         * @return This builder
+         */
+        public <N> Builder<I, N> async(String name, Function<? super O, ? extends N> function) {
+            return this.then(PipelineStage.async(name, function));
+        }
+
+        /**
+         * Add a stage that may be shared with other pipelines. A shared server thread stage processes the items of all
+         * its pipelines in the same batch.
+         *
+         * @param stage The stage
+         * @param <N>   Type of the stage output
+         * @return This builder
+         */
+        @SuppressWarnings("unchecked")
+        public <N> Builder<I, N> then(PipelineStage<? super O, N> stage) {
+            this.stages.add(stage);
+            return (Builder<I, N>) this;
+        }
+
+        /**
+         * Build the pipeline.
+         *
+         * @return The pipeline
+         * @throws IllegalStateException If no stages were added
+         */
+        public Pipeline<I, O> build() {
+            if (this.stages.isEmpty()) {
+                throw new IllegalStateException("Pipeline " + this.name + " has no stages");
+            }
+            return new Pipeline<>(this.name, new ArrayList<>(this.stages));
+        }
+    }
+}
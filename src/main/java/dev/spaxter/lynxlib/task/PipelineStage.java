@@ -0,0 +1,202 @@
+package dev.spaxter.lynxlib.task;
+
+import dev.spaxter.lynxlib.common.Histogram;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * A stage of a {@link Pipeline}, running either on the server thread or on the worker pool. Keeps timing statistics of
+ * the items it processed.
+ *
+ * <p>Items reaching a server thread stage are queued, and the {@link TaskScheduler} processes the whole queue in a
+ * single pass once per tick, so the stage costs one scheduler entry per tick no matter how many pipeline runs reach
+ * it. Create a stage with {@link #main(String, Function)} and add it to several pipelines with
+ * {@link Pipeline.Builder#then(PipelineStage)} to batch the items of all of them together.
+ *
+ * @param <I> Type of the stage input
+ * @param <O> Type of the stage output
+ */
+public class PipelineStage<I, O> {
+    private final String name;
+    private final boolean async;
+    private final Function<? super I, ? extends O> function;
+    private final Histogram runtimes = new Histogram();
+    private long batchCount;
+    private int lastBatchSize;
+
+    /* Items waiting for the next pass of a server thread stage */
+    private final Queue<Pipeline.Job> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private PipelineStage(String name, boolean async, Function<? super I, ? extends O> function) {
+        this.name = name;
+        this.async = async;
+        this.function = function;
+    }
+
+    /**
+     * Create a stage running on the server thread, which can be shared by several pipelines.
+     *
+     * @param name     Name of the stage
+     * @param function The work of the stage, may touch the world
+     * @param <I>      Type of the stage input
+     * @param <O>      Type of the stage output
+     * @return The stage
+     */
+    public static <I, O> PipelineStage<I, O> main(String name, Function<? super I, ? extends O> function) {
+        return new PipelineStage<>(name, false, function);
+    }
+
+    /**
+     * Create a stage running on the worker pool, off the server thread, which can be shared by several pipelines.
+     *
+     * @param name     Name of the stage
+     * @param function The work of the stage, must not touch the world
+     * @param <I>      Type of the stage input
+     * @param <O>      Type of the stage output
+     * @return The stage
+     */
+    public static <I, O> PipelineStage<I, O> async(String name, Function<? super I, ? extends O> function) {
+        return new PipelineStage<>(name, true, function);
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Check if the stage runs on the worker pool.
+     *
+     * @return {@code true} for an async stage, {@code false} for a server thread stage
+     */
+    public boolean isAsync() {
+        return this.async;
+    }
+
+    /**
+     * Get the number of items the stage has processed.
+     *
+     * @return Item count
+     */
+    public synchronized long getRunCount() {
+        return this.runtimes.getCount();
+    }
+
+    public synchronized long getTotalNanos() {
+        return this.runtimes.getTotal();
+    }
+
+    public synchronized long getMaxNanos() {
+        return this.runtimes.getMax();
+    }
+
+    public synchronized double getMeanNanos() {
+        return this.runtimes.getMean();
+    }
+
+    /**
+     * Get an approximate percentile of the time the stage took per item.
+     *
+     * @param percentile The percentile to get, 0-100
+     * @return The percentile in nanoseconds
+     */
+    public synchronized long getPercentileNanos(double percentile) {
+        return this.runtimes.getPercentile(percentile);
+    }
+
+    /**
+     * Get the number of passes a server thread stage has made over its queued items.
+     *
+     * @return Batch count, always {@code 0} for async stages
+     */
+    public synchronized long getBatchCount() {
+        return this.batchCount;
+    }
+
+    /**
+     * Get the number of items processed in the last pass of a server thread stage.
+     *
+     * @return Size of the last batch
+     */
+    public synchronized int getLastBatchSize() {
+        return this.lastBatchSize;
+    }
+
+    /**
+     * Hand an item to the stage. Async stages start on the worker pool right away, server thread stages wait for the
+     * next tick.
+     *
+     * @param job The pipeline run reaching this stage
+     */
+    void accept(Pipeline.Job job) {
+        if (this.async) {
+            TaskScheduler.runAsync(() -> this.apply(job.value)).whenComplete(job::advance);
+            return;
+        }
+
+        this.queue.add(job);
+        if (this.scheduled.compareAndSet(false, true)) {
+            TaskScheduler.schedulePipelineStage(this);
+        }
+    }
+
+    /**
+     * Process every queued item in one pass, from whichever pipelines they came. Called by the scheduler on the server
+     * thread.
+     */
+    void runBatch() {
+        // Items queued from now on need a new pass
+        this.scheduled.set(false);
+
+        int batchSize = 0;
+        Pipeline.Job job;
+        while ((job = this.queue.poll()) != null) {
+            batchSize++;
+            Object value;
+            try {
+                value = this.apply(job.value);
+            } catch (Throwable e) {
+                job.advance(null, e);
+                continue;
+            }
+            job.advance(value, null);
+        }
+
+        // Items taken by an earlier pass leave nothing for this one
+        if (batchSize == 0) {
+            return;
+        }
+        synchronized (this) {
+            this.batchCount++;
+            this.lastBatchSize = batchSize;
+        }
+    }
+
+    /**
+     * Fail the queued items, used when the server stops before the stage could run.
+     */
+    void discard() {
+        this.scheduled.set(false);
+        Pipeline.Job job;
+        while ((job = this.queue.poll()) != null) {
+            job.advance(null, new CancellationException("The server stopped before pipeline stage " + this.name
+                + " could run"));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private O apply(Object value) {
+        long startTime = System.nanoTime();
+        try {
+            return this.function.apply((I) value);
+        } finally {
+            long runtime = System.nanoTime() - startTime;
+            synchronized (this) {
+                this.runtimes.record(runtime);
+            }
+        }
+    }
+}
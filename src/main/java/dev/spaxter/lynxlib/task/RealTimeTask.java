@@ -0,0 +1,14 @@
+package dev.spaxter.lynxlib.task;
+
+import java.util.UUID;
+
+/**
+ * A task due after an amount of real time rather than a number of server ticks, so it fires on time even when the
+ * server runs below 20 TPS. The {@link #deadline} of these tasks is in milliseconds of {@link System#nanoTime()} since
+ * {@link TaskScheduler}'s clock origin.
+ */
+class RealTimeTask extends DelayedTask {
+    RealTimeTask(long deadline, long period, RepeatMode repeatMode, int maxCatchUp, Runnable task, UUID id) {
+        super(deadline, period, repeatMode, maxCatchUp, task, id);
+    }
+}
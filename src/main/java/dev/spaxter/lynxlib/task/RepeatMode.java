@@ -0,0 +1,17 @@
+package dev.spaxter.lynxlib.task;
+
+/**
+ * How a repeating task picks the tick of its next run.
+ */
+public enum RepeatMode {
+    /**
+     * Runs are spaced one period apart from the tick the previous run was scheduled for, so late runs do not shift
+     * later ones.
+     */
+    FIXED_RATE,
+
+    /**
+     * Runs are spaced one period apart from the tick the previous run actually happened on.
+     */
+    FIXED_DELAY
+}
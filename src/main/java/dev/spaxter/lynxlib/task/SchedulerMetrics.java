@@ -0,0 +1,169 @@
+package dev.spaxter.lynxlib.task;
+
+import dev.spaxter.lynxlib.common.Histogram;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+
+/**
+ * Metrics of the {@link TaskScheduler}: pending tasks, tasks run per tick, how late tasks fire and how long they run.
+ *
+ * <p>Runtimes are grouped by task label, see {@link TaskHandle#setLabel(String)}. Tasks hold a reference to the
+ * statistics of their label, so recording a run is a few array writes and does not allocate.
+ */
+public class SchedulerMetrics {
+    public static final String UNLABELED = "unlabeled";
+
+    private static final int TICK_HISTORY = 100;
+
+    private static final Map<String, TaskStats> statsByLabel = new ConcurrentHashMap<>();
+    private static final TaskStats unlabeledStats = statsFor(UNLABELED);
+    private static final Histogram fireLag = new Histogram();
+    private static final int[] tasksRunHistory = new int[TICK_HISTORY];
+    private static int tickIndex = 0;
+    private static long recordedTicks = 0;
+    private static boolean enabled = true;
+
+    /**
+     * Enable or disable recording. Recording is enabled by default.
+     *
+     * @param enable Whether to record metrics
+     */
+    public static void setEnabled(boolean enable) {
+        enabled = enable;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Get the number of tasks waiting to run, including wall-clock tasks and tasks deferred by the tick budget.
+     *
+     * @return Number of pending tasks
+     */
+    public static int getPendingTaskCount() {
+        return TaskScheduler.getPendingTaskCount();
+    }
+
+    /**
+     * Get the number of tasks run in the last tick.
+     *
+     * @return Number of tasks
+     */
+    public static int getTasksRunLastTick() {
+        return recordedTicks == 0 ? 0 : tasksRunHistory[(tickIndex + TICK_HISTORY - 1) % TICK_HISTORY];
+    }
+
+    /**
+     * Get the average number of tasks run per tick over the last {@value #TICK_HISTORY} ticks.
+     *
+     * @return Average tasks per tick
+     */
+    public static double getAverageTasksPerTick() {
+        int ticks = (int) Math.min(recordedTicks, TICK_HISTORY);
+        if (ticks == 0) {
+            return 0;
+        }
+
+        long total = 0;
+        for (int i = 0; i < ticks; i++) {
+            total += tasksRunHistory[i];
+        }
+        return (double) total / ticks;
+    }
+
+    /**
+     * Get the highest number of tasks run in a single tick over the last {@value #TICK_HISTORY} ticks.
+     *
+     * @return Peak tasks per tick
+     */
+    public static int getPeakTasksPerTick() {
+        int peak = 0;
+        for (int tasksRun : tasksRunHistory) {
+            peak = Math.max(peak, tasksRun);
+        }
+        return peak;
+    }
+
+    /**
+     * Get how many ticks late tasks fired, compared to the tick they were scheduled for.
+     *
+     * @param percentile The percentile to get, 0-100
+     * @return Approximate fire lag in ticks
+     */
+    public static long getFireLagPercentile(double percentile) {
+        return fireLag.getPercentile(percentile);
+    }
+
+    public static long getMaxFireLag() {
+        return fireLag.getMax();
+    }
+
+    /**
+     * Get the runtime statistics of a task label.
+     *
+     * @param label The task label
+     * @return The statistics, or {@code null} if no task has used the label
+     */
+    @Nullable
+    public static TaskStats getTaskStats(String label) {
+        return statsByLabel.get(label);
+    }
+
+    /**
+     * Get the task labels with the slowest single run.
+     *
+     * @param limit Maximum number of labels to return
+     * @return Statistics of the slowest labels, slowest first
+     */
+    public static List<TaskStats> getSlowestTasks(int limit) {
+        List<TaskStats> stats = new ArrayList<>();
+        for (TaskStats taskStats : statsByLabel.values()) {
+            if (taskStats.getRunCount() > 0) {
+                stats.add(taskStats);
+            }
+        }
+        stats.sort(Comparator.comparingLong(TaskStats::getMaxNanos).reversed());
+        return stats.subList(0, Math.min(limit, stats.size()));
+    }
+
+    /**
+     * Forget everything recorded so far.
+     */
+    public static void reset() {
+        for (TaskStats taskStats : statsByLabel.values()) {
+            taskStats.reset();
+        }
+        fireLag.reset();
+        Arrays.fill(tasksRunHistory, 0);
+        tickIndex = 0;
+        recordedTicks = 0;
+    }
+
+    static TaskStats statsFor(@Nullable String label) {
+        if (label == null) {
+            return unlabeledStats;
+        }
+        return statsByLabel.computeIfAbsent(label, TaskStats::new);
+    }
+
+    static void recordRun(DelayedTask task, long lagTicks, long runtimeNanos) {
+        if (enabled) {
+            fireLag.record(lagTicks);
+            (task.stats != null ? task.stats : unlabeledStats).record(runtimeNanos);
+        }
+    }
+
+    static void recordTick(int tasksRun) {
+        if (enabled) {
+            tasksRunHistory[tickIndex] = tasksRun;
+            tickIndex = (tickIndex + 1) % TICK_HISTORY;
+            recordedTicks++;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package dev.spaxter.lynxlib.task;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A set of pending tasks belonging to the same owner, such as a player or a minigame arena, that can be cancelled,
+ * paused and resumed together. Get the group for an owner with {@link TaskScheduler#getGroup(Object)}.
+ *
+ * <p>Members are linked through the tasks themselves, so adding a task and removing a finished one are O(1), and bulk
+ * operations take time proportional to the size of the group. All methods are thread-safe.
+ */
+public class TaskGroup {
+    private final Object key;
+    private DelayedTask head;
+    private int size;
+    private boolean paused;
+
+    TaskGroup(Object key) {
+        this.key = key;
+    }
+
+    /**
+     * Get the owner key the group was created for.
+     *
+     * @return The group key
+     */
+    public Object getKey() {
+        return this.key;
+    }
+
+    /**
+     * Add a pending task to the group, moving it out of any group it was in before. Finished and cancelled tasks are
+     * ignored.
+     *
+     * @param handle Handle to the task
+     */
+    public void add(TaskHandle handle) {
+        DelayedTask task = (DelayedTask) handle;
+        while (true) {
+            TaskGroup previous = task.group;
+            if (previous == this || !task.isPending()) {
+                return;
+            }
+            if (previous != null) {
+                previous.remove(task);
+                continue;
+            }
+
+            synchronized (this) {
+                // Fails if another group took the task since it was checked, it is then moved out of that one
+                if (task.claimGroup(this)) {
+                    task.nextInGroup = this.head;
+                    if (this.head != null) {
+                        this.head.prevInGroup = task;
+                    }
+                    this.head = task;
+                    this.size++;
+                    break;
+                }
+            }
+        }
+
+        // The task may have finished on another thread while it was being added
+        if (!task.isPending()) {
+            this.remove(task);
+        }
+    }
+
+    /**
+     * Cancel every task in the group.
+     *
+     * @return Number of tasks cancelled
+     */
+    public int cancelAll() {
+        int cancelled = 0;
+        for (DelayedTask task : this.snapshot(false)) {
+            if (TaskScheduler.cancel(task)) {
+                cancelled++;
+            }
+        }
+        return cancelled;
+    }
+
+    /**
+     * Pause the group. Tasks of a paused group that become due are held back until the group is resumed, and tasks
+     * added while the group is paused are held back as well.
+     */
+    public synchronized void pause() {
+        this.paused = true;
+        TaskScheduler.retainPausedGroup(this, true);
+    }
+
+    /**
+     * Resume a paused group. Tasks that became due while the group was paused run on the next tick. Repeating tasks
+     * then continue on their usual schedule.
+     */
+    public void resume() {
+        for (DelayedTask task : this.snapshot(true)) {
+            TaskScheduler.resume(task);
+        }
+    }
+
+    /**
+     * Check if the group is paused.
+     *
+     * @return {@code true} if the group is paused
+     */
+    public synchronized boolean isPaused() {
+        return this.paused;
+    }
+
+    /**
+     * Get the number of pending tasks in the group, including those held back by a pause.
+     *
+     * @return Number of tasks
+     */
+    public synchronized int size() {
+        return this.size;
+    }
+
+    /**
+     * Hold back a due task if the group is paused.
+     *
+     * @param task A due task of this group
+     * @return {@code true} if the task was held back
+     */
+    synchronized boolean park(DelayedTask task) {
+        if (this.paused && task.group == this) {
+            task.parked = true;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Release a task held back by a pause, e.g. because it was cancelled.
+     *
+     * @param task A task of this group
+     * @return {@code true} if the task was held back
+     */
+    synchronized boolean unpark(DelayedTask task) {
+        boolean parked = task.parked;
+        task.parked = false;
+        return parked;
+    }
+
+    /**
+     * Remove a finished or cancelled task from the group.
+     *
+     * @param task A task of this group
+     */
+    synchronized void remove(DelayedTask task) {
+        if (task.group != this) {
+            return;
+        }
+
+        if (task.prevInGroup != null) {
+            task.prevInGroup.nextInGroup = task.nextInGroup;
+        } else {
+            this.head = task.nextInGroup;
+        }
+        if (task.nextInGroup != null) {
+            task.nextInGroup.prevInGroup = task.prevInGroup;
+        }
+        task.prevInGroup = null;
+        task.nextInGroup = null;
+        task.group = null;
+        this.size--;
+    }
+
+    /**
+     * Drop all members without touching the tasks' scheduling, used when the scheduler is reset.
+     */
+    synchronized void clear() {
+        DelayedTask task = this.head;
+        while (task != null) {
+            DelayedTask next = task.nextInGroup;
+            task.prevInGroup = null;
+            task.nextInGroup = null;
+            task.group = null;
+            task.parked = false;
+            task = next;
+        }
+        this.head = null;
+        this.size = 0;
+        this.paused = false;
+    }
+
+    /**
+     * Copy the members of the group, so they can be cancelled or resubmitted without holding the lock.
+     *
+     * @param resume {@code true} to unpause the group and only collect the tasks held back by the pause
+     * @return The tasks
+     */
+    private synchronized List<DelayedTask> snapshot(boolean resume) {
+        if (resume) {
+            this.paused = false;
+            TaskScheduler.retainPausedGroup(this, false);
+        }
+
+        List<DelayedTask> tasks = new ArrayList<>(this.size);
+        for (DelayedTask task = this.head; task != null; task = task.nextInGroup) {
+            if (!resume) {
+                tasks.add(task);
+            } else if (task.parked) {
+                task.parked = false;
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+}
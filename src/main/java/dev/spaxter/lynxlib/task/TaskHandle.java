@@ -0,0 +1,66 @@
+package dev.spaxter.lynxlib.task;
+
+import java.util.UUID;
+import javax.annotation.Nullable;
+
+/**
+ * Handle to a task scheduled with the {@link TaskScheduler}. All operations are constant-time.
+ */
+public interface TaskHandle {
+    /**
+     * Get the ID the task was scheduled with.
+     *
+     * @return Task UUID
+     */
+    UUID getId();
+
+    /**
+     * Set the label the task's runtimes are grouped under in the {@link SchedulerMetrics}.
+     *
+     * @param label The label, e.g. "leaderboard-refresh"
+     */
+    void setLabel(String label);
+
+    /**
+     * Get the label of the task.
+     *
+     * @return The label, or {@link SchedulerMetrics#UNLABELED} if none was set
+     */
+    String getLabel();
+
+    /**
+     * Get the group the task was added to with {@link TaskGroup#add(TaskHandle)}.
+     *
+     * @return The group, or {@code null} if the task is not in a group
+     */
+    @Nullable
+    TaskGroup getGroup();
+
+    /**
+     * Cancel the task. A repeating task will not run again.
+     *
+     * @return {@code true} if the task was pending and is now cancelled
+     */
+    boolean cancel();
+
+    /**
+     * Check if the task is still waiting to run.
+     *
+     * @return {@code true} if the task has neither finished nor been cancelled
+     */
+    boolean isPending();
+
+    /**
+     * Check if the task has been cancelled.
+     *
+     * @return {@code true} if the task was cancelled before it finished
+     */
+    boolean isCancelled();
+
+    /**
+     * Check if the task has finished running. Repeating tasks only finish by being cancelled.
+     *
+     * @return {@code true} if the task has run and will not run again
+     */
+    boolean isDone();
+}
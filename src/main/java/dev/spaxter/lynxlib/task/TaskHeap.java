@@ -0,0 +1,118 @@
+package dev.spaxter.lynxlib.task;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of {@link DelayedTask}s ordered by deadline. Tasks remember their position in the heap, so a
+ * cancelled task can be removed in O(log n) instead of waiting in the heap until it comes up.
+ */
+class TaskHeap {
+    private DelayedTask[] tasks = new DelayedTask[16];
+    private int size;
+
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Add a task to the heap. The task must not be in another heap.
+     *
+     * @param task The task to add
+     */
+    void add(DelayedTask task) {
+        if (this.size == this.tasks.length) {
+            this.tasks = Arrays.copyOf(this.tasks, this.size * 2);
+        }
+        this.siftUp(this.size++, task);
+    }
+
+    /**
+     * Get the task with the earliest deadline without removing it.
+     *
+     * @return The first task, or {@code null} if the heap is empty
+     */
+    DelayedTask peek() {
+        return this.size > 0 ? this.tasks[0] : null;
+    }
+
+    /**
+     * Remove and return the task with the earliest deadline.
+     *
+     * @return The first task, or {@code null} if the heap is empty
+     */
+    DelayedTask poll() {
+        DelayedTask task = this.peek();
+        if (task != null) {
+            this.remove(task);
+        }
+        return task;
+    }
+
+    /**
+     * Remove a task from the heap.
+     *
+     * @param task A task currently in this heap
+     */
+    void remove(DelayedTask task) {
+        int index = task.heapIndex;
+        task.heapIndex = -1;
+        DelayedTask last = this.tasks[--this.size];
+        this.tasks[this.size] = null;
+        if (last == task) {
+            return;
+        }
+
+        this.siftDown(index, last);
+        if (this.tasks[index] == last) {
+            this.siftUp(index, last);
+        }
+    }
+
+    /**
+     * Remove every task from the heap.
+     */
+    void clear() {
+        for (int i = 0; i < this.size; i++) {
+            this.tasks[i].heapIndex = -1;
+            this.tasks[i] = null;
+        }
+        this.size = 0;
+    }
+
+    private void siftUp(int index, DelayedTask task) {
+        while (index > 0) {
+            int parentIndex = (index - 1) >>> 1;
+            DelayedTask parent = this.tasks[parentIndex];
+            if (parent.deadline <= task.deadline) {
+                break;
+            }
+            this.place(index, parent);
+            index = parentIndex;
+        }
+        this.place(index, task);
+    }
+
+    private void siftDown(int index, DelayedTask task) {
+        int half = this.size >>> 1;
+        while (index < half) {
+            int childIndex = 2 * index + 1;
+            DelayedTask child = this.tasks[childIndex];
+            int rightIndex = childIndex + 1;
+            if (rightIndex < this.size && this.tasks[rightIndex].deadline < child.deadline) {
+                childIndex = rightIndex;
+                child = this.tasks[rightIndex];
+            }
+            if (task.deadline <= child.deadline) {
+                break;
+            }
+            this.place(index, child);
+            index = childIndex;
+        }
+        this.place(index, task);
+    }
+
+    private void place(int index, DelayedTask task) {
+        this.tasks[index] = task;
+        task.heapIndex = index;
+    }
+}
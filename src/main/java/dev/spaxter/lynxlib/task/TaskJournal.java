@@ -0,0 +1,234 @@
+package dev.spaxter.lynxlib.task;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.spaxter.lynxlib.LynxLib;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only journal of the pending persistent tasks, stored as one JSON record per line.
+ *
+ * <p>Scheduling a task appends an {@code add} record and finishing or cancelling it appends a {@code remove} record,
+ * so no schedule call rewrites the file. Once most of the journal is made up of records that no longer matter, the
+ * live records are written to a new file that atomically replaces the journal. All file writes happen on a single
+ * background thread, in the order they were requested.
+ */
+class TaskJournal {
+    private static final String ADD = "add";
+    private static final String REMOVE = "remove";
+
+    /**
+     * Minimum number of records in the journal before it is compacted.
+     */
+    private static final int MIN_COMPACTION_RECORDS = 1024;
+
+    private static final long CLOSE_TIMEOUT_SECONDS = 10;
+
+    /**
+     * A line of the journal. Public fields so Jackson can map it without annotations.
+     */
+    static class Record {
+        public String op;
+        public String key;
+        public String type;
+        public String payload;
+        public long fireAt;
+
+        public Record() {
+        }
+
+        Record(String op, String key, String type, String payload, long fireAt) {
+            this.op = op;
+            this.key = key;
+            this.type = type;
+            this.payload = payload;
+            this.fireAt = fireAt;
+        }
+    }
+
+    private final Path file;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ExecutorService writer;
+
+    /* Only touched by the writer thread once the journal is open */
+    private final Map<String, Record> liveRecords = new LinkedHashMap<>();
+    private BufferedWriter output;
+    private int recordCount;
+
+    /**
+     * Create a journal stored in a file. Nothing is read or written until {@link #open()} is called.
+     *
+     * @param file The journal file
+     */
+    TaskJournal(Path file) {
+        this.file = file;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "LynxLib Task Journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Read the journal and prepare it for appending. Lines that can not be parsed, such as a half written last line
+     * after a crash, are skipped.
+     *
+     * @return The records of the tasks that were pending when the journal was last written
+     * @throws IOException If the journal file can not be read or created
+     */
+    List<Record> open() throws IOException {
+        boolean damaged = false;
+        if (Files.exists(this.file)) {
+            try (BufferedReader reader = Files.newBufferedReader(this.file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isEmpty() && !this.replay(line)) {
+                        damaged = true;
+                    }
+                }
+            }
+        } else if (this.file.getParent() != null) {
+            Files.createDirectories(this.file.getParent());
+        }
+
+        // Rewrite a damaged journal right away, so new records are not appended to a half written line
+        if (damaged || this.shouldCompact()) {
+            this.compact();
+        } else {
+            this.output = Files.newBufferedWriter(this.file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+        }
+        return new ArrayList<>(this.liveRecords.values());
+    }
+
+    /**
+     * Record a scheduled task, replacing any earlier task with the same key.
+     *
+     * @param key     Unique key of the task
+     * @param type    Registered type of the task
+     * @param payload Data handed to the task type's handler
+     * @param fireAt  Unix timestamp in milliseconds the task is due at
+     */
+    void add(String key, String type, String payload, long fireAt) {
+        this.append(new Record(ADD, key, type, payload, fireAt));
+    }
+
+    /**
+     * Record that a task has finished or was cancelled.
+     *
+     * @param key Unique key of the task
+     */
+    void remove(String key) {
+        this.append(new Record(REMOVE, key, null, null, 0));
+    }
+
+    /**
+     * Write the records still queued and close the journal file.
+     */
+    void close() {
+        this.writer.execute(() -> {
+            if (this.output == null) {
+                return;
+            }
+            try {
+                this.output.close();
+            } catch (IOException e) {
+                LynxLib.logger.error("Failed to close task journal " + this.file, e);
+            }
+        });
+        this.writer.shutdown();
+        try {
+            if (!this.writer.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LynxLib.logger.warn("Timed out writing task journal " + this.file);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void append(Record record) {
+        try {
+            this.writer.execute(() -> this.write(record));
+        } catch (RejectedExecutionException e) {
+            // Such as a task cancelled while the server stops, which is then scheduled again on the next start
+            LynxLib.logger.warn("Task journal " + this.file + " is closed, dropping record for " + record.key);
+        }
+    }
+
+    private void write(Record record) {
+        try {
+            this.output.write(this.mapper.writeValueAsString(record));
+            this.output.newLine();
+            this.output.flush();
+            this.apply(record);
+            if (this.shouldCompact()) {
+                this.compact();
+            }
+        } catch (IOException e) {
+            LynxLib.logger.error("Failed to write task journal " + this.file, e);
+        }
+    }
+
+    private boolean replay(String line) {
+        try {
+            this.apply(this.mapper.readValue(line, Record.class));
+            return true;
+        } catch (JsonProcessingException e) {
+            LynxLib.logger.warn("Skipping unreadable task journal line: " + line);
+            return false;
+        }
+    }
+
+    private void apply(Record record) {
+        if (ADD.equals(record.op)) {
+            this.liveRecords.put(record.key, record);
+        } else {
+            this.liveRecords.remove(record.key);
+        }
+        this.recordCount++;
+    }
+
+    private boolean shouldCompact() {
+        return this.recordCount >= MIN_COMPACTION_RECORDS && this.recordCount > 2 * this.liveRecords.size();
+    }
+
+    /**
+     * Replace the journal with one holding only the live records.
+     */
+    private void compact() throws IOException {
+        Path compacted = this.file.resolveSibling(this.file.getFileName() + ".tmp");
+        try (BufferedWriter compactedOutput = Files.newBufferedWriter(compacted, StandardCharsets.UTF_8)) {
+            for (Record record : this.liveRecords.values()) {
+                compactedOutput.write(this.mapper.writeValueAsString(record));
+                compactedOutput.newLine();
+            }
+        }
+
+        if (this.output != null) {
+            this.output.close();
+        }
+        try {
+            Files.move(compacted, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            this.recordCount = this.liveRecords.size();
+        } finally {
+            // Keep appending to whichever file is now in place, even if the move failed
+            this.output = Files.newBufferedWriter(this.file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package dev.spaxter.lynxlib.task;
+
+/**
+ * Intrusive doubly linked FIFO list of {@link DelayedTask} nodes. Tasks carry their own links, so adding, removing and
+ * moving tasks between lists never allocates.
+ */
+class TaskList {
+    private DelayedTask head;
+    private DelayedTask tail;
+    private int size;
+
+    int size() {
+        return this.size;
+    }
+
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Append a task to the end of the list. The task must not be linked into another list.
+     *
+     * @param task The task to append
+     */
+    void addLast(DelayedTask task) {
+        task.list = this;
+        task.prev = this.tail;
+        task.next = null;
+        if (this.tail == null) {
+            this.head = task;
+        } else {
+            this.tail.next = task;
+        }
+        this.tail = task;
+        this.size++;
+    }
+
+    /**
+     * Remove and return the first task of the list.
+     *
+     * @return The first task, or {@code null} if the list is empty
+     */
+    DelayedTask pollFirst() {
+        DelayedTask task = this.head;
+        if (task != null) {
+            this.remove(task);
+        }
+        return task;
+    }
+
+    /**
+     * Unlink a task from this list.
+     *
+     * @param task A task currently linked into this list
+     */
+    void remove(DelayedTask task) {
+        if (task.prev == null) {
+            this.head = task.next;
+        } else {
+            task.prev.next = task.next;
+        }
+        if (task.next == null) {
+            this.tail = task.prev;
+        } else {
+            task.next.prev = task.prev;
+        }
+        task.prev = null;
+        task.next = null;
+        task.list = null;
+        this.size--;
+    }
+
+    /**
+     * Unlink every task from this list.
+     */
+    void clear() {
+        while (this.head != null) {
+            this.remove(this.head);
+        }
+    }
+
+    /**
+     * Move every task of this list to the end of {@code target}, keeping their order. Runs in O(n) since each task has
+     * its owning list updated.
+     *
+     * @param target The list to move the tasks to
+     */
+    void transferTo(TaskList target) {
+        for (DelayedTask task = this.head; task != null; task = task.next) {
+            task.list = target;
+        }
+        if (this.head != null) {
+            if (target.tail == null) {
+                target.head = this.head;
+            } else {
+                target.tail.next = this.head;
+                this.head.prev = target.tail;
+            }
+            target.tail = this.tail;
+            target.size += this.size;
+        }
+        this.head = null;
+        this.tail = null;
+        this.size = 0;
+    }
+}
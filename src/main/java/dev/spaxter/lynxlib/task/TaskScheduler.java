@@ -1,25 +1,116 @@
 package dev.spaxter.lynxlib.task;
 
+import dev.spaxter.lynxlib.LynxLib;
 import dev.spaxter.lynxlib.common.MagicValues;
+import dev.spaxter.lynxlib.common.TimeParser;
+import java.io.IOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
-import java.util.PriorityQueue;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
 import net.minecraft.server.MinecraftServer;
 import net.minecraftforge.event.TickEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.event.server.FMLServerStartingEvent;
+import net.minecraftforge.fml.event.server.FMLServerStoppedEvent;
+import net.minecraftforge.fml.event.server.FMLServerStoppingEvent;
 
 /**
- * Basic task scheduler for server-side tasks.
+ * Basic task scheduler for server-side tasks. Pending tasks are stored in a tick-granularity {@link TimingWheel}, so
+ * scheduling a task and firing it are both O(1). Pending tasks are also indexed by ID, so looking up and cancelling a
+ * task is O(1) as well.
+ *
+ * <p>An optional per-tick time budget limits how long due tasks may run in a single tick. Tasks that did not fit in
+ * the budget stay queued in FIFO order and run first on the following ticks.
+ *
+ * <p>Heavy work can be moved off the server thread with {@link #runAsync(Supplier)} and
+ * {@link #scheduleAsyncTask(MinecraftServer, float, Supplier)}. Their futures can hand results back to the server
+ * thread through the {@link #mainThread()} executor, e.g. {@code runAsync(this::load).thenAcceptAsync(this::apply,
+ * TaskScheduler.mainThread())}. Longer flows alternating between the two can be declared as a {@link Pipeline}.
+ *
+ * <p>Tasks can also be scheduled for wall-clock times with {@link #scheduleAt(Instant, Runnable)},
+ * {@link #scheduleDaily(String, Runnable)} and {@link #scheduleCron(String, Runnable)}. These are kept in a separate
+ * index ordered by time that is checked once per tick, so they fire on time regardless of the server's TPS.
+ * {@link #scheduleRealTime(float, Runnable)} and {@link #repeatRealTime(float, Runnable, UUID, RepeatMode, int)} do
+ * the same for delays, keeping their tasks in a second timing wheel with millisecond slots driven by
+ * {@link System#nanoTime()}.
+ *
+ * <p>Tasks may be scheduled and cancelled from any thread. Off the server thread, new tasks are pushed onto a
+ * lock-free submission stack and cancellations only flip the task's state, and the server thread picks both up at the
+ * start of its next tick. Neither blocks the submitting thread or the tick.
+ *
+ * <p>Keyed tasks of a registered type can be made to survive restarts with
+ * {@link #schedulePersistent(String, String, String, Instant)} once {@link #enablePersistence(Path)} is set. They are
+ * recorded in an append-only {@link TaskJournal} that is written off the server thread and read back on server start.
+ *
+ * <p>Tasks can be grouped by owner with {@link #getGroup(Object)}, so all tasks of a player or an arena can be
+ * cancelled, paused or counted at once without tracking their IDs.
  */
 public class TaskScheduler {
 
-    private static final PriorityQueue<DelayedTask> taskQueue = new PriorityQueue<>();
-    private static MinecraftServer server;
+    private static final long MILLIS_PER_TICK = 1000 / MagicValues.TICKS_PER_SECOND;
 
-    public static void scheduleTask(MinecraftServer server, float delay, Runnable task) {
-        TaskScheduler.scheduleTask(server, delay, task, UUID.randomUUID());
+    private static TimingWheel taskWheel = new TimingWheel(0);
+
+    /* Origin of the real-time clock, real-time task deadlines are in milliseconds since this System.nanoTime() */
+    private static final long REAL_TIME_ORIGIN = System.nanoTime();
+    private static TimingWheel realTimeWheel = new TimingWheel(0);
+    private static final TaskList dueTasks = new TaskList();
+    private static final Map<UUID, DelayedTask> tasksById = new ConcurrentHashMap<>();
+    private static final TaskHeap wallClockTasks = new TaskHeap();
+    private static final AtomicReference<DelayedTask> submittedTasks = new AtomicReference<>();
+    private static final Queue<UUID> submittedCancellations = new ConcurrentLinkedQueue<>();
+    private static final Queue<DelayedTask> cancelledTasks = new ConcurrentLinkedQueue<>();
+    private static volatile MinecraftServer server;
+    private static final Map<String, Consumer<String>> persistentTaskTypes = new ConcurrentHashMap<>();
+    private static final Map<String, PersistentTask> persistentTasks = new ConcurrentHashMap<>();
+    /* Keeps journal records of a key in the same order as the changes to persistentTasks */
+    private static final Object persistentLock = new Object();
+    /* Groups are held weakly, so the group of an owner is dropped once it has no tasks and nobody holds it */
+    private static final Map<Object, GroupReference> groups = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<TaskGroup> droppedGroups = new ReferenceQueue<>();
+    /* Paused groups are held strongly until they are resumed, so their pause is not lost with them */
+    private static final Set<TaskGroup> pausedGroups = ConcurrentHashMap.newKeySet();
+    private static Path journalFile;
+    private static volatile TaskJournal journal;
+    private static long tickBudgetNanos = 0;
+    private static float defaultSpreadTolerance = 0;
+    private static long totalDeferredTasks = 0;
+    private static final Queue<Runnable> mainThreadTasks = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger mainThreadTaskCount = new AtomicInteger();
+    private static final Queue<PipelineStage<?, ?>> pipelineStages = new ConcurrentLinkedQueue<>();
+    /* Cleared while the server stops, so continuations fail with a RejectedExecutionException instead of hanging */
+    private static volatile boolean mainThreadOpen = true;
+    private static final Executor mainThreadExecutor = task -> {
+        if (!mainThreadOpen) {
+            throw new RejectedExecutionException("The server is stopping, main thread tasks no longer run");
+        }
+        mainThreadTasks.add(task);
+        mainThreadTaskCount.incrementAndGet();
+    };
+    /* Futures of scheduleAsyncTask() whose task has not run yet, cancelled when the server stops */
+    private static final Set<CompletableFuture<?>> asyncTaskResults = ConcurrentHashMap.newKeySet();
+
+    public static TaskHandle scheduleTask(MinecraftServer server, float delay, Runnable task) {
+        return TaskScheduler.scheduleTask(server, delay, task, UUID.randomUUID());
     }
 
     /**
@@ -28,49 +119,884 @@ public class TaskScheduler {
      * @param server The server to set the task for
      * @param delay  The delay in seconds
      * @param task   The task to run
+     * @param taskId UUID of the task
+     * @return Handle to the scheduled task
      */
-    public static void scheduleTask(MinecraftServer server, float delay, Runnable task, UUID taskId) {
+    public static TaskHandle scheduleTask(MinecraftServer server, float delay, Runnable task, UUID taskId) {
         long currentTick = server.getTickCount();
-        long executionTick = Math.round(currentTick + delay * MagicValues.TICKS_PER_SECOND);
+        long executionTick = currentTick + Math.round(delay * MagicValues.TICKS_PER_SECOND);
 
+        DelayedTask delayedTask = new DelayedTask(executionTick, task, taskId);
         if (delay == 0) {
             task.run();
+            delayedTask.state = DelayedTask.State.DONE;
         } else {
-            DelayedTask delayedTask = new DelayedTask(executionTick, task, taskId);
-            taskQueue.add(delayedTask);
+            TaskScheduler.submit(delayedTask);
         }
+        return delayedTask;
     }
 
     /**
-     * Un-schedule a task.
+     * Un-schedule all pending tasks with the given ID. Off the server thread, the tasks are un-scheduled at the start
+     * of the next tick.
      *
      * @param taskId Task UUID
      */
     public static void unScheduleTask(UUID taskId) {
-        List<DelayedTask> task = taskQueue.stream().filter(t -> t.getId().equals(taskId)).collect(Collectors.toList());
-        task.forEach(taskQueue::remove);
+        if (!TaskScheduler.isServerThread()) {
+            submittedCancellations.add(taskId);
+            return;
+        }
+
+        DelayedTask task = tasksById.get(taskId);
+        while (task != null) {
+            DelayedTask next = task.nextWithId;
+            TaskScheduler.cancel(task);
+            task = next;
+        }
+    }
+
+    /**
+     * Get a pending task by its ID. If several pending tasks share the ID, the most recently scheduled one is
+     * returned.
+     *
+     * @param taskId Task UUID
+     * @return Handle to the task, or {@code null} if no task with that ID is pending
+     */
+    @Nullable
+    public static TaskHandle getTask(UUID taskId) {
+        return tasksById.get(taskId);
     }
 
     /**
-     * Schedule a task that repeats every {@code delay} seconds.
+     * Check if a task with the given ID is waiting to run.
+     *
+     * @param taskId Task UUID
+     * @return {@code true} if a task with that ID is pending
+     */
+    public static boolean isScheduled(UUID taskId) {
+        DelayedTask task = tasksById.get(taskId);
+        return task != null && task.isPending();
+    }
+
+    /**
+     * Schedule a task that repeats every {@code delay} seconds at a fixed rate. Runs missed while the server lagged
+     * are skipped.
      *
      * @param server The server to set the task for
      * @param delay  Delay in seconds
      * @param task   The task to run
      * @param taskId UUID of the task
+     * @return Handle to the repeating task
      */
-    public static void repeatTask(final MinecraftServer server, final float delay, final Runnable task,
+    public static TaskHandle repeatTask(final MinecraftServer server, final float delay, final Runnable task,
         final UUID taskId) {
-        Runnable repeatedTask = new Runnable() {
-            @Override
-            public void run() {
+        return TaskScheduler.repeatTask(server, delay, task, taskId, RepeatMode.FIXED_RATE, 0);
+    }
+
+    /**
+     * Schedule a task that repeats every {@code delay} seconds. The task stays a single entry in the scheduler for its
+     * whole lifetime, so repeating it does not allocate.
+     *
+     * <p>A {@link RepeatMode#FIXED_RATE} task that runs late makes up for at most {@code maxCatchUp} missed runs, one
+     * per tick, and skips the rest.
+     *
+     * @param server     The server to set the task for
+     * @param delay      Delay in seconds
+     * @param task       The task to run
+     * @param taskId     UUID of the task
+     * @param mode       How the next run is timed
+     * @param maxCatchUp Maximum number of missed runs to catch up on, only used by {@link RepeatMode#FIXED_RATE}
+     * @return Handle to the repeating task
+     */
+    public static TaskHandle repeatTask(final MinecraftServer server, final float delay, final Runnable task,
+        final UUID taskId, final RepeatMode mode, final int maxCatchUp) {
+        return TaskScheduler.repeatTask(server, delay, task, taskId, mode, maxCatchUp, defaultSpreadTolerance);
+    }
+
+    /**
+     * Schedule a task that repeats every {@code delay} seconds, letting the scheduler push its first run back by up to
+     * {@code tolerance} seconds to spread the load. Of the ticks in that window, the task starts on the one the fewest
+     * other spread tasks with the same period run on, so tasks scheduled together do not all run on the same tick
+     * forever. {@link RepeatMode#FIXED_RATE} tasks keep the tick they were placed on for their whole lifetime.
+     *
+     * @param server     The server to set the task for
+     * @param delay      Delay in seconds
+     * @param task       The task to run
+     * @param taskId     UUID of the task
+     * @param mode       How the next run is timed
+     * @param maxCatchUp Maximum number of missed runs to catch up on, only used by {@link RepeatMode#FIXED_RATE}
+     * @param tolerance  How far the first run may be pushed back in seconds, or {@code 0} to not spread the task
+     * @return Handle to the repeating task
+     */
+    public static TaskHandle repeatTask(final MinecraftServer server, final float delay, final Runnable task,
+        final UUID taskId, final RepeatMode mode, final int maxCatchUp, final float tolerance) {
+        long period = Math.max(1, Math.round(delay * MagicValues.TICKS_PER_SECOND));
+        DelayedTask repeatingTask = new DelayedTask(server.getTickCount() + period, period, mode,
+            Math.max(0, maxCatchUp), task, taskId);
+        repeatingTask.spreadWindow = (int) Math.min(period - 1,
+            Math.max(0, Math.round(tolerance * MagicValues.TICKS_PER_SECOND)));
+
+        // Schedule the first run of the repeated task, later runs re-use the same entry
+        return TaskScheduler.submit(repeatingTask);
+    }
+
+    public static TaskHandle scheduleRealTime(float delay, Runnable task) {
+        return TaskScheduler.scheduleRealTime(delay, task, UUID.randomUUID());
+    }
+
+    /**
+     * Schedule a task to run after a delay in real time. Unlike
+     * {@link #scheduleTask(MinecraftServer, float, Runnable)}, the delay is not converted to ticks, so the task runs
+     * on the first tick after the delay has passed even when the server is lagging.
+     *
+     * @param delay  The delay in seconds
+     * @param task   The task to run
+     * @param taskId UUID of the task
+     * @return Handle to the scheduled task
+     */
+    public static TaskHandle scheduleRealTime(float delay, Runnable task, UUID taskId) {
+        long deadline = TaskScheduler.realTimeMillis() + Math.max(0, Math.round(delay * 1000.0));
+        return TaskScheduler.submit(new RealTimeTask(deadline, 0, RepeatMode.FIXED_RATE, 0, task, taskId));
+    }
+
+    /**
+     * Schedule a task that repeats every {@code delay} seconds of real time, regardless of the server's TPS.
+     *
+     * <p>Runs are checked once per tick, so when the server lags, more than one period may pass between two ticks. A
+     * {@link RepeatMode#FIXED_RATE} task then makes up for at most {@code maxCatchUp} of the missed runs, one per
+     * tick, and skips the rest. A {@link RepeatMode#FIXED_DELAY} task simply runs again {@code delay} seconds after
+     * its last run.
+     *
+     * @param delay      Delay in seconds
+     * @param task       The task to run
+     * @param taskId     UUID of the task
+     * @param mode       How the next run is timed
+     * @param maxCatchUp Maximum number of missed runs to catch up on, only used by {@link RepeatMode#FIXED_RATE}
+     * @return Handle to the repeating task
+     */
+    public static TaskHandle repeatRealTime(float delay, Runnable task, UUID taskId, RepeatMode mode,
+        int maxCatchUp) {
+        long period = Math.max(1, Math.round(delay * 1000.0));
+        return TaskScheduler.submit(new RealTimeTask(TaskScheduler.realTimeMillis() + period, period, mode,
+            Math.max(0, maxCatchUp), task, taskId));
+    }
+
+    public static TaskHandle scheduleAt(Instant time, Runnable task) {
+        return TaskScheduler.scheduleAt(time, task, UUID.randomUUID());
+    }
+
+    /**
+     * Schedule a task to run at a wall-clock time. The task runs on the first tick at or after that time, or on the
+     * next tick if the time has already passed.
+     *
+     * @param time   The time to run the task at
+     * @param task   The task to run
+     * @param taskId UUID of the task
+     * @return Handle to the scheduled task
+     */
+    public static TaskHandle scheduleAt(Instant time, Runnable task, UUID taskId) {
+        return TaskScheduler.submit(new WallClockTask(time.toEpochMilli(), null, task, taskId));
+    }
+
+    public static TaskHandle scheduleDaily(String timeString, Runnable task) throws DateTimeParseException {
+        return TaskScheduler.scheduleDaily(timeString, task, UUID.randomUUID());
+    }
+
+    /**
+     * Schedule a task to run every day at a given time of day.
+     *
+     * @param timeString Time string in a format supported by {@link TimeParser}, e.g. "11:00" or "3:00AM"
+     * @param task       The task to run
+     * @param taskId     UUID of the task
+     * @return Handle to the repeating task
+     * @throws DateTimeParseException If the time string can not be parsed
+     */
+    public static TaskHandle scheduleDaily(String timeString, Runnable task, UUID taskId)
+        throws DateTimeParseException {
+        LocalTime time = TimeParser.parseTime(timeString);
+        long firstRun = TimeParser.getNextUnixTimestamp(time, System.currentTimeMillis());
+        return TaskScheduler.submit(
+            new WallClockTask(firstRun, after -> TimeParser.getNextUnixTimestamp(time, after), task, taskId));
+    }
+
+    public static TaskHandle scheduleCron(String expression, Runnable task) {
+        return TaskScheduler.scheduleCron(expression, task, UUID.randomUUID());
+    }
+
+    /**
+     * Schedule a task to run at the times matching a cron expression, see {@link CronExpression} for the syntax.
+     *
+     * @param expression The cron expression, e.g. {@code "0 3 * * *"} for every day at 3:00
+     * @param task       The task to run
+     * @param taskId     UUID of the task
+     * @return Handle to the repeating task
+     * @throws IllegalArgumentException If the expression can not be parsed or never matches
+     */
+    public static TaskHandle scheduleCron(String expression, Runnable task, UUID taskId) {
+        CronExpression cron = new CronExpression(expression);
+        long firstRun = cron.nextAfter(System.currentTimeMillis());
+        if (firstRun < 0) {
+            throw new IllegalArgumentException("Cron expression '" + expression + "' never matches");
+        }
+        return TaskScheduler.submit(new WallClockTask(firstRun, cron::nextAfter, task, taskId));
+    }
+
+    /**
+     * Get the task group of an owner, creating it if it does not exist yet. Add tasks to the group to cancel, pause or
+     * count them together, e.g. all tasks of a player or of a minigame arena.
+     *
+     * <p>Groups are only held weakly while they are not paused, so the group of a player who left is dropped once its
+     * last task has finished and no one holds on to it.
+     *
+     * @param key The owner key, e.g. a player UUID or an arena name
+     * @return The group
+     */
+    public static TaskGroup getGroup(Object key) {
+        TaskScheduler.expungeDroppedGroups();
+        while (true) {
+            GroupReference reference = groups.get(key);
+            TaskGroup group = reference != null ? reference.get() : null;
+            if (group != null) {
+                return group;
+            }
+
+            group = new TaskGroup(key);
+            GroupReference created = new GroupReference(group);
+            boolean stored = reference == null
+                ? groups.putIfAbsent(key, created) == null
+                : groups.replace(key, reference, created);
+            if (stored) {
+                return group;
+            }
+        }
+    }
+
+    /**
+     * Cancel all tasks of an owner's group and forget the group.
+     *
+     * @param key The owner key
+     * @return Number of tasks cancelled
+     */
+    public static int removeGroup(Object key) {
+        GroupReference reference = groups.remove(key);
+        TaskGroup group = reference != null ? reference.get() : null;
+        if (group == null) {
+            return 0;
+        }
+        pausedGroups.remove(group);
+        return group.cancelAll();
+    }
+
+    /**
+     * Keep a paused group, or stop keeping it once it is resumed.
+     *
+     * @param group  The group
+     * @param paused {@code true} if the group has been paused
+     */
+    static void retainPausedGroup(TaskGroup group, boolean paused) {
+        if (paused) {
+            pausedGroups.add(group);
+        } else {
+            pausedGroups.remove(group);
+        }
+    }
+
+    private static void expungeDroppedGroups() {
+        GroupReference reference;
+        while ((reference = (GroupReference) droppedGroups.poll()) != null) {
+            groups.remove(reference.key, reference);
+        }
+    }
+
+    /**
+     * Keep persistent tasks in a journal file, so they are scheduled again after a restart. Takes effect on the next
+     * server start, when the journal is read and the tasks in it are scheduled again. Tasks whose time passed while
+     * the server was down run on the first tick.
+     *
+     * @param file The journal file, e.g. a file in the mod's config folder
+     */
+    public static void enablePersistence(Path file) {
+        journalFile = file;
+    }
+
+    /**
+     * Register the handler of a type of persistent task. Types must be registered before the server starts, or tasks
+     * of that type in the journal are kept there but not scheduled.
+     *
+     * @param type    Name of the task type, e.g. "tempban"
+     * @param handler Runs a task of the type with its payload
+     */
+    public static void registerPersistentTaskType(String type, Consumer<String> handler) {
+        persistentTaskTypes.put(type, handler);
+    }
+
+    /**
+     * Schedule a task that survives server restarts to run after a delay. Scheduling a task with the key of a pending
+     * task replaces that task.
+     *
+     * @param type    Registered type of the task
+     * @param key     Unique key of the task, e.g. "tempban:" followed by the player UUID
+     * @param payload Data handed to the task type's handler, e.g. serialized JSON
+     * @param delay   The delay in seconds
+     * @return Handle to the scheduled task
+     * @throws IllegalArgumentException If the task type is not registered
+     * @throws IllegalStateException    If persistence is not enabled or the server has not started yet
+     */
+    public static TaskHandle schedulePersistent(String type, String key, String payload, float delay) {
+        return TaskScheduler.schedulePersistent(type, key, payload,
+            Instant.now().plusMillis(Math.round(delay * 1000.0)));
+    }
+
+    /**
+     * Schedule a task that survives server restarts to run at a wall-clock time. Scheduling a task with the key of a
+     * pending task replaces that task.
+     *
+     * @param type    Registered type of the task
+     * @param key     Unique key of the task, e.g. "tempban:" followed by the player UUID
+     * @param payload Data handed to the task type's handler, e.g. serialized JSON
+     * @param time    The time to run the task at
+     * @return Handle to the scheduled task
+     * @throws IllegalArgumentException If the task type is not registered
+     * @throws IllegalStateException    If persistence is not enabled or the server has not started yet
+     */
+    public static TaskHandle schedulePersistent(String type, String key, String payload, Instant time) {
+        Consumer<String> handler = persistentTaskTypes.get(type);
+        if (handler == null) {
+            throw new IllegalArgumentException("Persistent task type '" + type + "' is not registered");
+        }
+        TaskJournal currentJournal = journal;
+        if (currentJournal == null) {
+            throw new IllegalStateException("Task persistence is not enabled or the server has not started yet");
+        }
+
+        PersistentTask task = new PersistentTask(time.toEpochMilli(), key, type, payload, handler);
+        PersistentTask previous;
+        // Journal the task before publishing it, so a concurrent cancel can not record its removal first
+        synchronized (persistentLock) {
+            currentJournal.add(key, type, payload, task.deadline);
+            previous = persistentTasks.put(key, task);
+        }
+        if (previous != null) {
+            previous.cancel();
+        }
+        return TaskScheduler.submit(task);
+    }
+
+    /**
+     * Cancel a pending persistent task.
+     *
+     * @param key Unique key of the task
+     * @return {@code true} if a task with that key was pending
+     */
+    public static boolean cancelPersistent(String key) {
+        PersistentTask task = persistentTasks.get(key);
+        return task != null && task.cancel();
+    }
+
+    /**
+     * Run a task on the worker pool, off the server thread. The task must not touch the world, use
+     * {@link #mainThread()} to apply its result.
+     *
+     * @param task The task to run
+     * @param <T>  Type of the task result
+     * @return Future completed with the task result on a worker thread. If the worker queue is full, the future
+     *     completes exceptionally with a {@link java.util.concurrent.RejectedExecutionException}
+     */
+    public static <T> CompletableFuture<T> runAsync(Supplier<T> task) {
+        return WorkerPool.supply(task);
+    }
+
+    /**
+     * Run a task on the worker pool, off the server thread. The task must not touch the world.
+     *
+     * @param task The task to run
+     * @return Future completed on a worker thread once the task has run
+     */
+    public static CompletableFuture<Void> runAsync(Runnable task) {
+        return WorkerPool.supply(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Schedule a task to run on the worker pool after a delay. Cancelling the returned future before the delay has
+     * passed keeps the task from running.
+     *
+     * @param server The server to set the task for
+     * @param delay  The delay in seconds
+     * @param task   The task to run off the server thread
+     * @param <T>    Type of the task result
+     * @return Future completed with the task result on a worker thread, or with a {@link CancellationException} if
+     *     the server stops before the task ran
+     */
+    public static <T> CompletableFuture<T> scheduleAsyncTask(MinecraftServer server, float delay, Supplier<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        asyncTaskResults.add(result);
+        TaskScheduler.scheduleTask(server, delay, () -> {
+            asyncTaskResults.remove(result);
+            if (!result.isDone()) {
+                WorkerPool.supply(task).whenComplete((value, error) -> {
+                    if (error != null) {
+                        result.completeExceptionally(error);
+                    } else {
+                        result.complete(value);
+                    }
+                });
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Get an executor running tasks on the server thread, at the end of the next server tick. Use it to continue
+     * async futures with the part of the work that touches the world.
+     *
+     * <p>Tasks queued when the server starts stopping still run, while the world is loaded. From then on the executor
+     * rejects tasks, so futures continued on it complete exceptionally with a
+     * {@link RejectedExecutionException} instead of never completing.
+     *
+     * @return Server thread executor
+     */
+    public static Executor mainThread() {
+        return mainThreadExecutor;
+    }
+
+    /**
+     * Queue a pipeline stage to process the items that reached it in one pass at the end of the next tick.
+     *
+     * @param stage A server thread stage with queued items
+     */
+    static void schedulePipelineStage(PipelineStage<?, ?> stage) {
+        pipelineStages.add(stage);
+    }
+
+    /**
+     * Configure the worker pool used by async tasks. Takes effect the next time the pool is started, which is on first
+     * use after a server start.
+     *
+     * @param threads       Maximum number of worker threads
+     * @param queueCapacity Maximum number of async tasks waiting for a worker
+     */
+    public static void setWorkerPoolSize(int threads, int queueCapacity) {
+        WorkerPool.configure(threads, queueCapacity);
+    }
+
+    /**
+     * Spread repeating tasks scheduled without an explicit tolerance over a window of up to {@code tolerance} seconds,
+     * see {@link #repeatTask(MinecraftServer, float, Runnable, UUID, RepeatMode, int, float)}.
+     *
+     * @param tolerance How far the first run of a repeating task may be pushed back in seconds, or {@code 0} to turn
+     *                  load spreading off
+     */
+    public static void setLoadSpreading(float tolerance) {
+        defaultSpreadTolerance = Math.max(0, tolerance);
+    }
+
+    /**
+     * Set how long due tasks may run per tick. Once the budget is used up, the remaining due tasks are deferred to the
+     * next tick. At least one task runs every tick, so a single slow task can not stall the queue.
+     *
+     * @param budgetNanos The budget in nanoseconds, or {@code 0} to run every due task in the tick it becomes due
+     */
+    public static void setTickBudget(long budgetNanos) {
+        tickBudgetNanos = Math.max(0, budgetNanos);
+    }
+
+    /**
+     * Get how long due tasks may run per tick.
+     *
+     * @return The budget in nanoseconds, {@code 0} if unlimited
+     */
+    public static long getTickBudget() {
+        return tickBudgetNanos;
+    }
+
+    /**
+     * Get the number of tasks waiting to run, including wall-clock tasks and tasks deferred by the tick budget.
+     *
+     * @return Number of pending tasks
+     */
+    public static int getPendingTaskCount() {
+        return taskWheel.size() + realTimeWheel.size() + dueTasks.size() + wallClockTasks.size();
+    }
+
+    /**
+     * Get the number of due tasks that did not fit in the last tick's budget and are waiting for the next tick.
+     *
+     * @return Number of deferred tasks
+     */
+    public static int getDeferredTaskCount() {
+        return dueTasks.size();
+    }
+
+    /**
+     * Get the total number of times a due task has been deferred to a later tick because the budget ran out.
+     *
+     * @return Total number of deferrals
+     */
+    public static long getTotalDeferredTasks() {
+        return totalDeferredTasks;
+    }
+
+    /**
+     * Cancel a pending task. On the server thread, the task is unlinked from wherever it is queued right away. Tasks
+     * cancelled from other threads are unlinked at the start of the next tick.
+     *
+     * @param task The task to cancel
+     * @return {@code true} if the task was pending
+     */
+    static boolean cancel(DelayedTask task) {
+        if (!task.transition(DelayedTask.State.PENDING, DelayedTask.State.CANCELLED)) {
+            return false;
+        }
+        if (task instanceof PersistentTask) {
+            TaskScheduler.forget((PersistentTask) task);
+        }
+
+        boolean parked = false;
+        TaskGroup group = task.group;
+        if (group != null) {
+            parked = group.unpark(task);
+            group.remove(task);
+        }
+
+        if (TaskScheduler.isServerThread()) {
+            TaskScheduler.unlink(task);
+            TaskScheduler.unindex(task);
+        } else {
+            cancelledTasks.add(task);
+        }
+        return true;
+    }
+
+    /**
+     * Remove a cancelled task from the wheel, heap or due queue it is in, if any.
+     *
+     * @param task The task
+     */
+    private static void unlink(DelayedTask task) {
+        if (task.list == dueTasks) {
+            dueTasks.remove(task);
+        } else if (task.list != null) {
+            TaskScheduler.wheelOf(task).remove(task);
+        } else if (task.heapIndex >= 0) {
+            wallClockTasks.remove(task);
+        }
+    }
+
+    private static boolean isServerThread() {
+        MinecraftServer currentServer = server;
+        return currentServer != null && currentServer.isSameThread();
+    }
+
+    /**
+     * Put a task held back by a paused group back into the scheduler. The task is overdue, so it runs on the next
+     * tick.
+     *
+     * @param task The task to resume
+     */
+    static void resume(DelayedTask task) {
+        TaskScheduler.submit(task);
+    }
+
+    /**
+     * Hand a new task to the scheduler. Off the server thread, the task is pushed onto the submission stack.
+     *
+     * @param task The task to schedule
+     * @return The task
+     */
+    private static TaskHandle submit(DelayedTask task) {
+        if (TaskScheduler.isServerThread()) {
+            TaskScheduler.store(task);
+            return task;
+        }
+
+        DelayedTask head;
+        do {
+            head = submittedTasks.get();
+            task.nextSubmitted = head;
+        } while (!submittedTasks.compareAndSet(head, task));
+        return task;
+    }
+
+    /**
+     * Store the tasks and cancellations submitted from other threads since the last tick.
+     */
+    private static void drainSubmissions() {
+        // The stack holds the newest task first, reverse it to store tasks in submission order
+        DelayedTask task = submittedTasks.getAndSet(null);
+        DelayedTask reversed = null;
+        while (task != null) {
+            DelayedTask next = task.nextSubmitted;
+            task.nextSubmitted = reversed;
+            reversed = task;
+            task = next;
+        }
+
+        for (task = reversed; task != null; ) {
+            DelayedTask next = task.nextSubmitted;
+            task.nextSubmitted = null;
+            // Tasks cancelled before being picked up are simply dropped
+            if (task.isPending()) {
+                TaskScheduler.store(task);
+            } else {
+                TaskScheduler.unindex(task);
+            }
+            task = next;
+        }
+
+        while ((task = cancelledTasks.poll()) != null) {
+            TaskScheduler.unlink(task);
+            TaskScheduler.unindex(task);
+        }
+
+        UUID taskId;
+        while ((taskId = submittedCancellations.poll()) != null) {
+            TaskScheduler.unScheduleTask(taskId);
+        }
+    }
+
+    private static void store(DelayedTask task) {
+        // Resumed tasks are still indexed and placed from when they were first scheduled
+        if (!task.indexed) {
+            TaskScheduler.index(task);
+            if (task.spreadWindow > 0) {
+                LoadSpreader.place(task, task.spreadWindow);
+            }
+        }
+        if (task instanceof WallClockTask) {
+            wallClockTasks.add(task);
+        } else {
+            TaskScheduler.wheelOf(task).add(task);
+        }
+    }
+
+    private static TimingWheel wheelOf(DelayedTask task) {
+        return task instanceof RealTimeTask ? realTimeWheel : taskWheel;
+    }
+
+    private static long realTimeMillis() {
+        return (System.nanoTime() - REAL_TIME_ORIGIN) / 1_000_000;
+    }
+
+    private static void index(DelayedTask task) {
+        DelayedTask head = tasksById.put(task.id, task);
+        if (head != null) {
+            task.nextWithId = head;
+            head.prevWithId = task;
+        }
+        task.indexed = true;
+    }
+
+    private static void unindex(DelayedTask task) {
+        if (!task.indexed) {
+            return;
+        }
+
+        if (task.prevWithId != null) {
+            task.prevWithId.nextWithId = task.nextWithId;
+        } else if (task.nextWithId != null) {
+            tasksById.put(task.id, task.nextWithId);
+        } else {
+            tasksById.remove(task.id);
+        }
+        if (task.nextWithId != null) {
+            task.nextWithId.prevWithId = task.prevWithId;
+        }
+        task.prevWithId = null;
+        task.nextWithId = null;
+        task.indexed = false;
+        LoadSpreader.release(task);
+    }
+
+    /**
+     * Run a due task and put it back in the scheduler if it repeats.
+     *
+     * @param task        The task to run
+     * @param currentTick The current server tick
+     * @return {@code false} if the task was skipped because it had been cancelled or its group is paused
+     */
+    private static boolean runTask(DelayedTask task, long currentTick) {
+        if (!task.isPending()) {
+            TaskScheduler.unindex(task);
+            return false;
+        }
+        TaskGroup group = task.group;
+        if (group != null && group.park(task)) {
+            return false;
+        }
+
+        if (SchedulerMetrics.isEnabled()) {
+            TaskScheduler.runTimed(task, currentTick);
+        } else {
+            TaskScheduler.runSafely(task);
+        }
+
+        // A repeating task cancelled while running is not put back
+        if (task.isPending() && TaskScheduler.reschedule(task, currentTick)) {
+            return true;
+        }
+
+        // The task may have been cancelled while running. Cancelling from another thread leaves the task indexed, so
+        // it is unindexed here either way.
+        boolean finished = task.transition(DelayedTask.State.PENDING, DelayedTask.State.DONE);
+        TaskScheduler.unindex(task);
+        if (finished) {
+            group = task.group;
+            if (group != null) {
+                group.remove(task);
+            }
+            if (task instanceof PersistentTask) {
+                TaskScheduler.forget((PersistentTask) task);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Put a repeating task back into the scheduler for its next run.
+     *
+     * @param task        A task that has just run
+     * @param currentTick The current server tick
+     * @return {@code false} if the task does not repeat or has no run left
+     */
+    private static boolean reschedule(DelayedTask task, long currentTick) {
+        if (task instanceof WallClockTask) {
+            if (((WallClockTask) task).reschedule(System.currentTimeMillis())) {
+                wallClockTasks.add(task);
+                return true;
+            }
+        } else if (task instanceof RealTimeTask) {
+            if (task.period > 0) {
+                task.deadline = task.nextDeadline(TaskScheduler.realTimeMillis());
+                realTimeWheel.add(task);
+                return true;
+            }
+        } else if (task.period > 0) {
+            task.deadline = task.nextDeadline(currentTick);
+            taskWheel.add(task);
+            return true;
+        }
+        return false;
+    }
+
+    private static void runSafely(DelayedTask task) {
+        try {
+            task.task.run();
+        } catch (Exception e) {
+            LynxLib.logger.error("Scheduled task " + task.id + " failed", e);
+        }
+    }
+
+    /**
+     * Run a task and record how late it fired and how long it ran.
+     */
+    private static void runTimed(DelayedTask task, long currentTick) {
+        long lag;
+        if (task instanceof WallClockTask) {
+            lag = (System.currentTimeMillis() - task.deadline) / MILLIS_PER_TICK;
+        } else if (task instanceof RealTimeTask) {
+            lag = (TaskScheduler.realTimeMillis() - task.deadline) / MILLIS_PER_TICK;
+        } else {
+            lag = currentTick - task.deadline;
+        }
+        long startTime = System.nanoTime();
+        TaskScheduler.runSafely(task);
+        SchedulerMetrics.recordRun(task, lag, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Remove a finished or cancelled persistent task from the journal, unless it has been replaced already.
+     *
+     * @param task The persistent task
+     */
+    private static void forget(PersistentTask task) {
+        synchronized (persistentLock) {
+            if (persistentTasks.remove(task.key, task)) {
+                TaskJournal currentJournal = journal;
+                if (currentJournal != null) {
+                    currentJournal.remove(task.key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Read the task journal and schedule the persistent tasks in it again.
+     */
+    private static void openJournal() {
+        TaskJournal openedJournal = new TaskJournal(journalFile);
+        List<TaskJournal.Record> records;
+        try {
+            records = openedJournal.open();
+        } catch (IOException e) {
+            LynxLib.logger.error("Failed to read task journal " + journalFile + ", persistent tasks are disabled", e);
+            openedJournal.close();
+            return;
+        }
+        journal = openedJournal;
+
+        for (TaskJournal.Record record : records) {
+            Consumer<String> handler = persistentTaskTypes.get(record.type);
+            if (handler == null) {
+                LynxLib.logger.warn("No handler registered for persistent task type '" + record.type
+                    + "', keeping task " + record.key + " in the journal");
+                continue;
+            }
+            PersistentTask task = new PersistentTask(record.fireAt, record.key, record.type, record.payload, handler);
+            persistentTasks.put(record.key, task);
+            TaskScheduler.submit(task);
+        }
+    }
+
+    /**
+     * Run the tasks handed to the main thread executor so far. Tasks queued while these run wait for the next tick.
+     */
+    private static void runMainThreadTasks() {
+        for (int count = mainThreadTaskCount.get(); count > 0; count--) {
+            Runnable task = mainThreadTasks.poll();
+            if (task == null) {
+                break;
+            }
+            mainThreadTaskCount.decrementAndGet();
+            try {
                 task.run();
-                TaskScheduler.scheduleTask(server, delay, this, taskId);
+            } catch (Exception e) {
+                LynxLib.logger.error("Main thread task failed", e);
+            }
+        }
+    }
+
+    /**
+     * Run the pipeline stages queued so far. Stages queued while these run, e.g. the next stage of a pipeline, wait
+     * for the next tick.
+     */
+    private static void runPipelineStages() {
+        for (int count = pipelineStages.size(); count > 0; count--) {
+            PipelineStage<?, ?> stage = pipelineStages.poll();
+            if (stage == null) {
+                break;
             }
-        };
+            stage.runBatch();
+        }
+    }
 
-        // Schedule the first instance of the repeated task
-        TaskScheduler.scheduleTask(server, delay, repeatedTask, taskId);
+    /**
+     * Move the wall-clock tasks whose time has come to the due queue.
+     */
+    private static void collectWallClockTasks() {
+        long now = System.currentTimeMillis();
+        DelayedTask task;
+        while ((task = wallClockTasks.peek()) != null && task.deadline <= now) {
+            wallClockTasks.poll();
+            if (task.isPending()) {
+                dueTasks.addLast(task);
+            } else {
+                TaskScheduler.unindex(task);
+            }
+        }
     }
 
     /**
@@ -80,42 +1006,108 @@ public class TaskScheduler {
      */
     @SubscribeEvent
     public static void onTick(TickEvent.ServerTickEvent event) {
-        synchronized (taskQueue) {
-            if (event.phase == TickEvent.Phase.END && !taskQueue.isEmpty()) {
-                long currentTick = server.getTickCount();
-
-                // Process tasks whose scheduled execution time has passed
-                while (!taskQueue.isEmpty() && taskQueue.peek().executionTick <= currentTick) {
-                    DelayedTask taskToRun = taskQueue.poll();
-                    taskToRun.task.run();
+        if (event.phase == TickEvent.Phase.END) {
+            long currentTick = server.getTickCount();
+            TaskScheduler.drainSubmissions();
+            TaskScheduler.runMainThreadTasks();
+            TaskScheduler.runPipelineStages();
+
+            // Collect tasks whose scheduled execution time has passed, behind any deferred from earlier ticks
+            taskWheel.advanceTo(currentTick, dueTasks);
+            realTimeWheel.advanceTo(TaskScheduler.realTimeMillis(), dueTasks);
+            TaskScheduler.collectWallClockTasks();
+
+            long startTime = System.nanoTime();
+            int tasksRun = 0;
+            DelayedTask taskToRun;
+            while ((taskToRun = dueTasks.pollFirst()) != null) {
+                if (!TaskScheduler.runTask(taskToRun, currentTick)) {
+                    continue;
+                }
+                tasksRun++;
+                if (tickBudgetNanos > 0 && System.nanoTime() - startTime >= tickBudgetNanos) {
+                    break;
                 }
             }
+            totalDeferredTasks += dueTasks.size();
+            SchedulerMetrics.recordTick(tasksRun);
         }
     }
 
     @SubscribeEvent
     public static void onServerStart(FMLServerStartingEvent event) {
         server = event.getServer();
+        mainThreadOpen = true;
+        if (journalFile != null) {
+            TaskScheduler.openJournal();
+        }
     }
 
-    private static class DelayedTask implements Comparable<DelayedTask> {
-        private final long executionTick;
-        private final Runnable task;
-        private final UUID id;
+    /**
+     * Stop taking main thread tasks and run the ones already queued, while the world is still loaded.
+     *
+     * @param event Event
+     */
+    @SubscribeEvent
+    public static void onServerStopping(FMLServerStoppingEvent event) {
+        mainThreadOpen = false;
+        TaskScheduler.runMainThreadTasks();
+    }
 
-        public DelayedTask(long executionTick, Runnable task, UUID id) {
-            this.executionTick = executionTick;
-            this.task = task;
-            this.id = id;
+    /**
+     * Drop the pending tasks of a stopped server. Tick counts restart at 0 with the next server.
+     *
+     * @param event Event
+     */
+    @SubscribeEvent
+    public static void onServerStopped(FMLServerStoppedEvent event) {
+        // Pending persistent tasks stay in the journal for the next start
+        if (journal != null) {
+            journal.close();
+            journal = null;
         }
-
-        public UUID getId() {
-            return this.id;
+        persistentTasks.clear();
+        for (GroupReference reference : groups.values()) {
+            TaskGroup group = reference.get();
+            if (group != null) {
+                group.clear();
+            }
+        }
+        groups.clear();
+        pausedGroups.clear();
+        LoadSpreader.clear();
+        taskWheel = new TimingWheel(0);
+        realTimeWheel = new TimingWheel(TaskScheduler.realTimeMillis());
+        tasksById.clear();
+        submittedTasks.set(null);
+        submittedCancellations.clear();
+        cancelledTasks.clear();
+        wallClockTasks.clear();
+        dueTasks.clear();
+        // Tasks queued just before the executor closed would otherwise leave their futures waiting forever
+        mainThreadOpen = false;
+        TaskScheduler.runMainThreadTasks();
+        for (CompletableFuture<?> result : asyncTaskResults) {
+            result.completeExceptionally(new CancellationException("The server stopped before the task ran"));
         }
+        asyncTaskResults.clear();
+        PipelineStage<?, ?> stage;
+        while ((stage = pipelineStages.poll()) != null) {
+            stage.discard();
+        }
+        WorkerPool.shutdown();
+        server = null;
+    }
+
+    /**
+     * Weak reference to a group, remembering its key so the map entry can be removed once the group is dropped.
+     */
+    private static final class GroupReference extends WeakReference<TaskGroup> {
+        final Object key;
 
-        @Override
-        public int compareTo(DelayedTask otherTask) {
-            return Long.compare(this.executionTick, otherTask.executionTick);
+        GroupReference(TaskGroup group) {
+            super(group, droppedGroups);
+            this.key = group.getKey();
         }
     }
 }
@@ -0,0 +1,58 @@
+package dev.spaxter.lynxlib.task;
+
+import dev.spaxter.lynxlib.common.Histogram;
+
+/**
+ * Runtime statistics of all scheduled tasks sharing a label, see {@link TaskHandle#setLabel(String)}.
+ */
+public class TaskStats {
+    private final String label;
+    private final Histogram runtimes = new Histogram();
+
+    TaskStats(String label) {
+        this.label = label;
+    }
+
+    void record(long runtimeNanos) {
+        this.runtimes.record(runtimeNanos);
+    }
+
+    public String getLabel() {
+        return this.label;
+    }
+
+    /**
+     * Get the number of runs recorded for this label.
+     *
+     * @return Run count
+     */
+    public long getRunCount() {
+        return this.runtimes.getCount();
+    }
+
+    public long getTotalNanos() {
+        return this.runtimes.getTotal();
+    }
+
+    public long getMaxNanos() {
+        return this.runtimes.getMax();
+    }
+
+    public double getMeanNanos() {
+        return this.runtimes.getMean();
+    }
+
+    /**
+     * Get an approximate runtime percentile.
+     *
+     * @param percentile The percentile to get, 0-100
+     * @return The percentile in nanoseconds
+     */
+    public long getPercentileNanos(double percentile) {
+        return this.runtimes.getPercentile(percentile);
+    }
+
+    void reset() {
+        this.runtimes.reset();
+    }
+}
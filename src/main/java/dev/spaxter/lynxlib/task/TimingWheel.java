@@ -0,0 +1,148 @@
+package dev.spaxter.lynxlib.task;
+
+/**
+ * Hierarchical timing wheel storing {@link DelayedTask}s by their deadline.
+ *
+ * <p>The wheel has {@value #LEVELS} levels of {@value #SLOTS_PER_LEVEL} slots. Level {@code n} buckets tasks by bits
+ * {@code 6n..6n+5} of their deadline, and a task is stored at the highest level where its deadline still differs from
+ * the current wheel time. Whenever the wheel time crosses a boundary of a level, the matching slot of that level is
+ * cascaded into the levels below it. Tasks further away than the top level can cover are kept in an overflow list that
+ * is redistributed once every full turn of the wheel.
+ *
+ * <p>Adding and removing a task is O(1), and advancing the wheel by one unit of time is O(1) amortized.
+ */
+class TimingWheel {
+    private static final int LEVEL_BITS = 6;
+    private static final int SLOTS_PER_LEVEL = 1 << LEVEL_BITS;
+    private static final int SLOT_MASK = SLOTS_PER_LEVEL - 1;
+    private static final int LEVELS = 4;
+
+    private final TaskList[][] levels = new TaskList[LEVELS][SLOTS_PER_LEVEL];
+    private final TaskList overflow = new TaskList();
+    private final TaskList expired = new TaskList();
+    private final TaskList rehashBuffer = new TaskList();
+    private long currentTime;
+    private int size;
+
+    /**
+     * Create a timing wheel.
+     *
+     * @param startTime The time the wheel starts at
+     */
+    TimingWheel(long startTime) {
+        this.currentTime = startTime;
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS_PER_LEVEL; slot++) {
+                this.levels[level][slot] = new TaskList();
+            }
+        }
+    }
+
+    /**
+     * Get the number of tasks stored in the wheel.
+     *
+     * @return Number of tasks
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Add a task to the wheel. Tasks with a deadline at or before the current wheel time are handed out on the next
+     * call to {@link #advanceTo(long, TaskList)}.
+     *
+     * @param task The task to add
+     */
+    void add(DelayedTask task) {
+        this.place(task);
+        this.size++;
+    }
+
+    /**
+     * Remove a task from the wheel.
+     *
+     * @param task A task currently stored in this wheel
+     */
+    void remove(DelayedTask task) {
+        task.list.remove(task);
+        this.size--;
+    }
+
+    /**
+     * Advance the wheel to {@code time}, moving every task that became due to the end of {@code due} in deadline
+     * order.
+     *
+     * @param time The time to advance to
+     * @param due  The list to move due tasks to
+     */
+    void advanceTo(long time, TaskList due) {
+        this.drain(this.expired, due);
+
+        while (this.currentTime < time) {
+            if (this.size == 0) {
+                // Nothing left to hand out, jump straight to the target time
+                this.currentTime = time;
+                return;
+            }
+
+            this.currentTime++;
+            this.cascade();
+
+            // Cascading can land tasks due right now in the expired list
+            this.drain(this.expired, due);
+            this.drain(this.levels[0][(int) this.currentTime & SLOT_MASK], due);
+        }
+    }
+
+    private void drain(TaskList list, TaskList due) {
+        if (!list.isEmpty()) {
+            this.size -= list.size();
+            list.transferTo(due);
+        }
+    }
+
+    private void place(DelayedTask task) {
+        long deadline = task.deadline;
+        if (deadline <= this.currentTime) {
+            this.expired.addLast(task);
+            return;
+        }
+
+        int level = (63 - Long.numberOfLeadingZeros(deadline ^ this.currentTime)) / LEVEL_BITS;
+        if (level >= LEVELS) {
+            this.overflow.addLast(task);
+        } else {
+            this.levels[level][(int) (deadline >>> (level * LEVEL_BITS)) & SLOT_MASK].addLast(task);
+        }
+    }
+
+    /**
+     * Redistribute the higher level slots the wheel time has just reached.
+     */
+    private void cascade() {
+        for (int level = 1; level <= LEVELS; level++) {
+            int shift = level * LEVEL_BITS;
+            if ((this.currentTime & ((1L << shift) - 1)) != 0) {
+                return;
+            }
+
+            if (level == LEVELS) {
+                this.rehash(this.overflow);
+            } else {
+                this.rehash(this.levels[level][(int) (this.currentTime >>> shift) & SLOT_MASK]);
+            }
+        }
+    }
+
+    private void rehash(TaskList list) {
+        if (list.isEmpty()) {
+            return;
+        }
+
+        list.transferTo(this.rehashBuffer);
+        DelayedTask task;
+        while ((task = this.rehashBuffer.pollFirst()) != null) {
+            this.place(task);
+        }
+    }
+}
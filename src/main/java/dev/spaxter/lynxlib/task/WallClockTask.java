@@ -0,0 +1,42 @@
+package dev.spaxter.lynxlib.task;
+
+import java.util.UUID;
+import java.util.function.LongUnaryOperator;
+import javax.annotation.Nullable;
+
+/**
+ * A task due at a wall-clock time rather than a server tick. The {@link #deadline} of these tasks is a unix timestamp
+ * in milliseconds.
+ */
+class WallClockTask extends DelayedTask {
+    /**
+     * Computes the next run time from the time of the last run, or returns a negative value once there are no more
+     * runs. {@code null} for tasks that run once.
+     */
+    @Nullable
+    private final LongUnaryOperator schedule;
+
+    WallClockTask(long deadline, @Nullable LongUnaryOperator schedule, Runnable task, UUID id) {
+        super(deadline, task, id);
+        this.schedule = schedule;
+    }
+
+    /**
+     * Move the deadline to the next run.
+     *
+     * @param now The current unix timestamp in milliseconds
+     * @return {@code true} if the task should run again
+     */
+    boolean reschedule(long now) {
+        if (this.schedule == null) {
+            return false;
+        }
+
+        long next = this.schedule.applyAsLong(Math.max(now, this.deadline));
+        if (next < 0) {
+            return false;
+        }
+        this.deadline = next;
+        return true;
+    }
+}
@@ -0,0 +1,92 @@
+package dev.spaxter.lynxlib.task;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool of daemon worker threads running the bodies of async tasks. The pool is created on first use and shut
+ * down with the server.
+ */
+class WorkerPool {
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private static int threadCount = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+    private static int queueCapacity = 1024;
+    private static volatile ThreadPoolExecutor executor;
+
+    /**
+     * Configure the pool. Takes effect the next time the pool is created.
+     *
+     * @param threads  Maximum number of worker threads
+     * @param capacity Maximum number of queued tasks waiting for a worker
+     */
+    static synchronized void configure(int threads, int capacity) {
+        if (threads < 1 || capacity < 1) {
+            throw new IllegalArgumentException(
+                "Worker thread count and queue capacity must be greater than 0. Provided threads: " + threads
+                    + ", capacity: " + capacity);
+        }
+        threadCount = threads;
+        queueCapacity = capacity;
+    }
+
+    /**
+     * Run a task on a worker thread. If the queue is full, the returned future completes exceptionally with a
+     * {@link RejectedExecutionException} instead of blocking the caller.
+     *
+     * @param task The task to run
+     * @param <T>  Type of the task result
+     * @return Future completed with the task result
+     */
+    static <T> CompletableFuture<T> supply(Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            getExecutor().execute(() -> {
+                try {
+                    future.complete(task.get());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Stop accepting tasks and let the queued ones finish in the background.
+     */
+    static synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    private static ThreadPoolExecutor getExecutor() {
+        ThreadPoolExecutor current = executor;
+        return current != null ? current : createExecutor();
+    }
+
+    private static synchronized ThreadPoolExecutor createExecutor() {
+        if (executor == null) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            ThreadFactory threadFactory = runnable -> {
+                Thread thread = new Thread(runnable, "LynxLib Worker #" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            executor = new ThreadPoolExecutor(threadCount, threadCount, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory);
+            executor.allowCoreThreadTimeOut(true);
+        }
+        return executor;
+    }
+}
@@ -0,0 +1,46 @@
+package dev.spaxter.lynxlib.unittest.chat;
+
+import dev.spaxter.lynxlib.chat.Messenger;
+import io.netty.handler.logging.LogLevel;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+class MessengerTests {
+
+    @Test
+    void translateColorCodes_ShouldTranslateColorAndFormatCodes() {
+        assertEquals("§eYellow §lbold§r", Messenger.translateColorCodes("&eYellow &lbold&r"));
+    }
+
+    @Test
+    void translateColorCodes_ShouldKeepOtherAmpersands() {
+        assertEquals("Salt & pepper &z &E", Messenger.translateColorCodes("Salt & pepper &z &E"));
+        assertEquals("ends with &", Messenger.translateColorCodes("ends with &"));
+    }
+
+    @Test
+    void translateColorCodes_ShouldTranslateCodeAfterAmpersand() {
+        assertEquals("&§a", Messenger.translateColorCodes("&&a"));
+    }
+
+    @Test
+    void translateColorCodes_ShouldReturnSameStringWithoutCodes() {
+        String message = "No codes here";
+        assertSame(message, Messenger.translateColorCodes(message));
+    }
+
+    @Test
+    void stripColorCodes_ShouldRemoveOnlyCodes() {
+        assertEquals("Salt & pepper bold", Messenger.stripColorCodes("&eSalt & pepper &lbold"));
+    }
+
+    @Test
+    void contextLogLevel_ShouldApplyToSubclassesAndBeCleared() {
+        Messenger.setLogLevel(Number.class, LogLevel.DEBUG);
+        assertTrue(Messenger.isDebugEnabled(Integer.class));
+        assertFalse(Messenger.isDebugEnabled(String.class));
+
+        Messenger.setLogLevel(Number.class, null);
+        assertFalse(Messenger.isDebugEnabled(Integer.class));
+    }
+}
@@ -0,0 +1,65 @@
+package dev.spaxter.lynxlib.unittest.menu;
+
+import dev.spaxter.lynxlib.menu.IAsyncClickHandlerCallback;
+import dev.spaxter.lynxlib.menu.MenuBase;
+import dev.spaxter.lynxlib.task.TaskScheduler;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.CountDownLatch;
+import net.minecraft.inventory.container.ClickType;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fml.event.server.FMLServerStartingEvent;
+import net.minecraftforge.fml.event.server.FMLServerStoppedEvent;
+import net.minecraftforge.fml.event.server.FMLServerStoppingEvent;
+
+class AsyncClickTests {
+    private final CountDownLatch finish = new CountDownLatch(1);
+    private TestPlayer player;
+
+    @BeforeEach
+    void startServer() {
+        this.player = new TestPlayer();
+        TaskScheduler.onServerStart(new FMLServerStartingEvent(this.player.getServer()));
+    }
+
+    @AfterEach
+    void stopServer() {
+        this.finish.countDown();
+        TaskScheduler.onServerStopping(new FMLServerStoppingEvent(this.player.getServer()));
+        TaskScheduler.onServerStopped(new FMLServerStoppedEvent(this.player.getServer()));
+    }
+
+    /**
+     * Async click handler that keeps the slot pending until the test ends.
+     */
+    private IAsyncClickHandlerCallback waitForTestEnd() {
+        return (slot, playerId) -> {
+            this.finish.await();
+            return null;
+        };
+    }
+
+    @Test
+    void clickHandlerModifyingLoadingSlot_ShouldNotChangeLoadingItemOfOtherMenus() {
+        MenuBase menu = this.player.open();
+        TestPlayer otherPlayer = new TestPlayer();
+        MenuBase other = otherPlayer.open();
+        menu.setAsyncClickHandler(0, this.waitForTestEnd());
+        other.setAsyncClickHandler(0, this.waitForTestEnd());
+        menu.setClickHandler(1, (slot, clicker) -> menu.getItemForUpdate(0).setCount(7));
+
+        this.player.click(menu, 0, ClickType.PICKUP, ItemStack.EMPTY);
+        otherPlayer.click(other, 0, ClickType.PICKUP, ItemStack.EMPTY);
+        ItemStack loading = other.slots.get(0).getItem();
+        assertTrue(menu.isSlotPending(0));
+        assertSame(loading, menu.slots.get(0).getItem());
+
+        this.player.click(menu, 1, ClickType.PICKUP, ItemStack.EMPTY);
+
+        assertEquals(7, menu.slots.get(0).getItem().getCount());
+        assertSame(loading, other.slots.get(0).getItem());
+        assertEquals(1, loading.getCount());
+    }
+}
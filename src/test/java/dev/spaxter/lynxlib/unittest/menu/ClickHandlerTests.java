@@ -0,0 +1,77 @@
+package dev.spaxter.lynxlib.unittest.menu;
+
+import dev.spaxter.lynxlib.menu.IClickHandlerCallback;
+import dev.spaxter.lynxlib.menu.MenuBase;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import net.minecraft.inventory.container.ClickType;
+import net.minecraft.item.ItemStack;
+
+class ClickHandlerTests {
+    private TestPlayer player;
+    private MenuBase menu;
+    private final List<String> calls = new ArrayList<>();
+
+    @BeforeEach
+    void openMenu() {
+        this.player = new TestPlayer();
+        this.menu = this.player.open();
+    }
+
+    private IClickHandlerCallback record(String name) {
+        return (clickedSlot, clicker) -> this.calls.add(name + "@" + clickedSlot.index);
+    }
+
+    private void click(int slot, ClickType clickType) {
+        this.player.click(this.menu, slot, clickType, ItemStack.EMPTY);
+        this.player.tick(1);
+    }
+
+    @Test
+    void handlerForClickType_ShouldOnlyRunForThatClickType() {
+        this.menu.setClickHandler(0, ClickType.QUICK_MOVE, this.record("quick"));
+
+        this.click(0, ClickType.PICKUP);
+        this.click(0, ClickType.QUICK_MOVE);
+
+        assertEquals(Arrays.asList("quick@0"), this.calls);
+    }
+
+    @Test
+    void addedHandlers_ShouldRunAfterEarlierHandlers() {
+        this.menu.setClickHandler(0, this.record("first"));
+        this.menu.addClickHandler(0, this.record("second"));
+        this.menu.addClickHandler(0, ClickType.PICKUP, this.record("pickup"));
+
+        this.click(0, ClickType.PICKUP);
+        this.click(0, ClickType.SWAP);
+
+        assertEquals(Arrays.asList("first@0", "second@0", "pickup@0", "first@0", "second@0"), this.calls);
+    }
+
+    @Test
+    void defaultHandler_ShouldRunForSlotsWithoutHandlerForTheClick() {
+        this.menu.setDefaultClickHandler(this.record("default"));
+        this.menu.setClickHandler(1, ClickType.PICKUP, this.record("slot"));
+
+        this.click(0, ClickType.PICKUP);
+        this.click(1, ClickType.PICKUP);
+        this.click(1, ClickType.QUICK_MOVE);
+
+        assertEquals(Arrays.asList("default@0", "slot@1", "default@1"), this.calls);
+    }
+
+    @Test
+    void removedHandlers_ShouldNoLongerRun() {
+        this.menu.setClickHandler(0, this.record("slot"));
+
+        this.menu.removeClickHandlers(0);
+        this.click(0, ClickType.PICKUP);
+
+        assertTrue(this.calls.isEmpty());
+    }
+}
@@ -0,0 +1,64 @@
+package dev.spaxter.lynxlib.unittest.menu;
+
+import dev.spaxter.lynxlib.menu.MenuBase;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import net.minecraft.inventory.container.ClickType;
+import net.minecraft.item.ItemStack;
+
+class ClickThrottleTests {
+    private TestPlayer player;
+    private MenuBase menu;
+    private final List<Integer> clicks = new ArrayList<>();
+
+    @BeforeEach
+    void openMenu() {
+        this.player = new TestPlayer();
+        this.menu = this.player.open();
+        this.menu.setDefaultClickHandler((clickedSlot, clicker) -> this.clicks.add(clickedSlot.index));
+    }
+
+    private void click(int slot) {
+        this.player.click(this.menu, slot, ClickType.PICKUP, ItemStack.EMPTY);
+    }
+
+    @Test
+    void clicksBeyondRateLimit_ShouldBeDroppedWhileSyncStillRuns() {
+        // Practically no refill, so only the burst of two clicks is handled
+        this.menu.setClickRateLimit(0.001, 2);
+
+        this.click(0);
+        this.click(1);
+        this.click(2);
+        this.player.tick(2);
+
+        assertEquals(Arrays.asList(0, 1), this.clicks);
+        // The first click syncs right away, the others wait for the next tick's sync
+        assertEquals(Arrays.asList(0, -1, 1, 2, -1), this.player.getSentSlots());
+    }
+
+    @Test
+    void repeatedClickInSameTick_ShouldBeCoalesced() {
+        this.click(0);
+        this.click(0);
+        this.player.tick(1);
+        this.click(0);
+
+        assertEquals(Arrays.asList(0, 0), this.clicks);
+    }
+
+    @Test
+    void clicksWithoutRateLimit_ShouldAllBeHandled() {
+        this.menu.setClickRateLimit(0, 1);
+
+        for (int slot = 0; slot < 27; slot++) {
+            this.click(slot);
+        }
+
+        assertEquals(27, this.clicks.size());
+    }
+}
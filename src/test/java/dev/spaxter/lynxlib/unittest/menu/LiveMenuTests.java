@@ -0,0 +1,111 @@
+package dev.spaxter.lynxlib.unittest.menu;
+
+import dev.spaxter.lynxlib.menu.MenuBase;
+import dev.spaxter.lynxlib.menu.MenuManager;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.function.Supplier;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.server.MinecraftServer;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.fml.server.ServerLifecycleHooks;
+
+class LiveMenuTests {
+    private TestPlayer player;
+    private MenuBase menu;
+    private int supplierCalls;
+
+    @BeforeEach
+    void openMenu() throws ReflectiveOperationException {
+        this.player = new TestPlayer();
+        setCurrentServer(this.player.getServer());
+        this.menu = this.player.open();
+    }
+
+    @AfterEach
+    void stopServer() throws ReflectiveOperationException {
+        setCurrentServer(null);
+    }
+
+    /**
+     * Make the live menu driver find the mocked server.
+     */
+    private static void setCurrentServer(MinecraftServer server) throws ReflectiveOperationException {
+        Field field = ServerLifecycleHooks.class.getDeclaredField("currentServer");
+        field.setAccessible(true);
+        field.set(null, server);
+    }
+
+    /**
+     * Run server ticks, updating live slots at the start of each tick before the player's sync.
+     */
+    private void tick(int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            MenuManager.onTick(new TickEvent.ServerTickEvent(TickEvent.Phase.START));
+            this.player.tick(1);
+        }
+    }
+
+    /**
+     * Supplier of a new stone stack that counts its calls. A changing supplier sizes the stack by the call count.
+     */
+    private Supplier<ItemStack> countingSupplier(boolean changing) {
+        return () -> {
+            this.supplierCalls++;
+            return new ItemStack(Items.STONE, changing ? this.supplierCalls : 1);
+        };
+    }
+
+    @Test
+    void liveSlot_ShouldBeUpdatedAtItsInterval() {
+        this.menu.setLiveItem(0, this.countingSupplier(true), 5);
+        this.player.clearPackets();
+
+        this.tick(12);
+
+        // Once when the slot is set, then on ticks 0, 5 and 10. The item set first goes out with tick 0's update
+        assertEquals(4, this.supplierCalls);
+        assertEquals(Arrays.asList(0, 0, 0), this.player.getSentSlots());
+    }
+
+    @Test
+    void unchangedLiveItem_ShouldNotBeResent() {
+        this.menu.setLiveItem(0, this.countingSupplier(false), 1);
+        this.tick(1);
+        this.player.clearPackets();
+
+        this.tick(5);
+
+        assertEquals(7, this.supplierCalls);
+        assertTrue(this.player.getSentSlots().isEmpty());
+    }
+
+    @Test
+    void liveSlotsChangedInOneTick_ShouldGoOutInThatTicksSync() {
+        this.menu.setLiveItem(0, this.countingSupplier(true), 1);
+        this.menu.setLiveItem(1, this.countingSupplier(true), 1);
+        this.tick(1);
+        this.player.clearPackets();
+
+        this.tick(1);
+
+        assertEquals(Arrays.asList(0, 1), this.player.getSentSlots());
+        assertEquals(0, this.player.getContainerSyncs());
+    }
+
+    @Test
+    void closedMenu_ShouldNoLongerBeUpdated() {
+        this.menu.setLiveItem(0, this.countingSupplier(true), 1);
+        this.tick(1);
+
+        this.menu.close();
+        this.tick(5);
+
+        assertEquals(2, this.supplierCalls);
+    }
+}
@@ -0,0 +1,61 @@
+package dev.spaxter.lynxlib.unittest.menu;
+
+import dev.spaxter.lynxlib.menu.MenuBase;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import net.minecraft.inventory.container.ClickType;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+
+class MenuBaseTests {
+    private TestPlayer player;
+    private MenuBase menu;
+
+    @BeforeEach
+    void openMenu() {
+        this.player = new TestPlayer();
+        this.menu = this.player.open();
+        this.menu.setItemAt(new ItemStack(Items.STONE), 0);
+        this.player.tick(1);
+        this.player.clearPackets();
+    }
+
+    @Test
+    void quickMoveOnFilledSlot_ShouldSendContainerOnce() {
+        // The client predicts the stack moves out of the slot, the server result does not match
+        this.player.click(this.menu, 0, ClickType.QUICK_MOVE, new ItemStack(Items.STONE));
+        this.player.tick(1);
+
+        assertEquals(1, this.player.getContainerSyncs());
+        assertTrue(this.player.getSentSlots().isEmpty());
+    }
+
+    @Test
+    void quickMoveOnEmptySlot_ShouldSendContainerOnce() {
+        this.player.click(this.menu, 1, ClickType.QUICK_MOVE, ItemStack.EMPTY);
+        this.player.tick(1);
+
+        assertEquals(1, this.player.getContainerSyncs());
+        assertTrue(this.player.getSentSlots().isEmpty());
+    }
+
+    @Test
+    void swapClick_ShouldResendContainer() {
+        // A number key swap also changes the hotbar slot on the client
+        this.player.click(this.menu, 0, ClickType.SWAP, ItemStack.EMPTY);
+        this.player.tick(1);
+
+        assertEquals(1, this.player.getContainerSyncs());
+    }
+
+    @Test
+    void pickupClick_ShouldOnlyResendClickedSlotAndCursor() {
+        this.player.click(this.menu, 0, ClickType.PICKUP, new ItemStack(Items.STONE));
+        this.player.tick(1);
+
+        assertEquals(0, this.player.getContainerSyncs());
+        assertEquals(Arrays.asList(0, -1), this.player.getSentSlots());
+    }
+}
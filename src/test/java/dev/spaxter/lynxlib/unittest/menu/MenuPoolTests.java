@@ -0,0 +1,58 @@
+package dev.spaxter.lynxlib.unittest.menu;
+
+import dev.spaxter.lynxlib.menu.MenuBase;
+import dev.spaxter.lynxlib.menu.MenuManager;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import net.minecraft.inventory.container.Slot;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+
+class MenuPoolTests {
+    private TestPlayer player;
+
+    @BeforeEach
+    void enablePooling() {
+        MenuManager.setPooling(true);
+        this.player = new TestPlayer();
+    }
+
+    @AfterEach
+    void disablePooling() {
+        MenuManager.setPooling(false);
+    }
+
+    @Test
+    void closedMenu_ShouldHandItsEmptiedSlotsToNextMenu() {
+        MenuBase closed = this.player.open();
+        closed.setItemAt(new ItemStack(Items.STONE), 0);
+        Slot menuSlot = closed.slots.get(0);
+        Slot inventorySlot = closed.slots.get(27);
+        closed.close();
+
+        MenuBase next = this.player.open();
+
+        assertSame(menuSlot, next.slots.get(0));
+        assertSame(inventorySlot, next.slots.get(27));
+        assertTrue(next.slots.get(0).getItem().isEmpty());
+    }
+
+    @Test
+    void lateWritesToClosedMenu_ShouldNotReachNextMenu() {
+        MenuBase closed = this.player.open();
+        closed.close();
+        MenuBase next = this.player.open();
+
+        closed.setItemAt(new ItemStack(Items.STONE), 0);
+        closed.fillWith(new ItemStack(Items.DIAMOND));
+        closed.getItemForUpdate(1).setCount(5);
+        this.player.tick(1);
+
+        for (int slot = 0; slot < 27; slot++) {
+            assertTrue(next.slots.get(slot).getItem().isEmpty());
+        }
+        assertTrue(this.player.getSentSlots().isEmpty());
+    }
+}
@@ -0,0 +1,97 @@
+package dev.spaxter.lynxlib.unittest.menu;
+
+import dev.spaxter.lynxlib.menu.MenuBase;
+import dev.spaxter.lynxlib.menu.MenuManager;
+import dev.spaxter.lynxlib.menu.MenuMetrics;
+import dev.spaxter.lynxlib.menu.MenuProvider;
+import dev.spaxter.lynxlib.menu.MenuStats;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.OptionalInt;
+import net.minecraft.entity.player.ServerPlayerEntity;
+import net.minecraft.inventory.container.ClickType;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+
+class MenuStatsTests {
+    private TestPlayer player;
+    private MenuBase menu;
+
+    @BeforeEach
+    void enableMetrics() {
+        MenuMetrics.reset();
+        MenuMetrics.setEnabled(true);
+        this.player = new TestPlayer();
+        this.menu = this.player.open();
+        this.menu.setDefaultClickHandler((clickedSlot, clicker) -> { });
+    }
+
+    @AfterEach
+    void disableMetrics() {
+        MenuManager.closeMenu(this.player.get());
+        MenuMetrics.setEnabled(false);
+        MenuMetrics.reset();
+    }
+
+    private MenuStats stats() {
+        return MenuMetrics.getMenuStats(TestPlayer.TestMenu.class);
+    }
+
+    @Test
+    void clicks_ShouldRecordHandlerRunsRefreshesAndSlotPackets() {
+        this.player.click(this.menu, 0, ClickType.PICKUP, ItemStack.EMPTY);
+        this.player.click(this.menu, 1, ClickType.PICKUP, ItemStack.EMPTY);
+        this.player.tick(2);
+
+        MenuStats stats = this.stats();
+        assertEquals(2, stats.getClickCount());
+        assertEquals(2, stats.getRefreshCount());
+        // Slot 0 goes out with the first click, slot 1 with the next tick's sync
+        assertEquals(2, stats.getSlotPacketCount());
+        assertEquals(0, stats.getFullResyncCount());
+    }
+
+    @Test
+    void mismatchedQuickMove_ShouldRecordOneFullResync() {
+        this.menu.setItemAt(new ItemStack(Items.STONE), 0);
+        this.player.tick(1);
+
+        this.player.click(this.menu, 0, ClickType.QUICK_MOVE, new ItemStack(Items.STONE));
+        this.player.tick(1);
+
+        assertEquals(1, this.stats().getFullResyncCount());
+    }
+
+    @Test
+    void openedMenu_ShouldRecordOpenLatency() {
+        ServerPlayerEntity entity = this.player.get();
+        MenuBase opened = new TestPlayer.TestMenu(this.player.getInventory());
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(this.player.getServer()).tell(any());
+        doAnswer(invocation -> {
+            entity.containerMenu = opened;
+            return OptionalInt.of(opened.containerId);
+        }).when(entity).openMenu(any());
+
+        MenuManager.openMenu(entity, new MenuProvider());
+
+        assertEquals(1, this.stats().getOpenCount());
+    }
+
+    @Test
+    void disabledMetrics_ShouldRecordNothing() {
+        MenuMetrics.setEnabled(false);
+
+        this.player.click(this.menu, 0, ClickType.PICKUP, ItemStack.EMPTY);
+        this.player.tick(1);
+
+        MenuStats stats = this.stats();
+        assertTrue(stats == null || stats.getClickCount() == 0 && stats.getRefreshCount() == 0);
+    }
+}
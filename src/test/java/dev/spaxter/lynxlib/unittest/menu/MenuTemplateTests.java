@@ -0,0 +1,70 @@
+package dev.spaxter.lynxlib.unittest.menu;
+
+import dev.spaxter.lynxlib.menu.MenuBase;
+import dev.spaxter.lynxlib.menu.MenuTemplate;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import net.minecraft.inventory.container.ClickType;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+
+class MenuTemplateTests {
+    private final List<Integer> clicks = new ArrayList<>();
+    private MenuTemplate template;
+    private TestPlayer player;
+    private MenuBase menu;
+    private MenuBase other;
+
+    @BeforeEach
+    void applyTemplate() {
+        this.template = new MenuTemplate.Builder(9, 3)
+            .setItemAt(new ItemStack(Items.EMERALD), 0)
+            .setBackground(new ItemStack(Items.GRAY_STAINED_GLASS_PANE))
+            .setClickHandler(0, (clickedSlot, clicker) -> this.clicks.add(clickedSlot.index))
+            .build();
+        this.player = new TestPlayer();
+        this.menu = this.player.open();
+        this.menu.applyTemplate(this.template);
+        this.other = new TestPlayer().open();
+        this.other.applyTemplate(this.template);
+        this.player.tick(1);
+        this.player.clearPackets();
+    }
+
+    @Test
+    void appliedTemplate_ShouldShareItsStacksAndHandlers() {
+        assertSame(this.menu.slots.get(0).getItem(), this.other.slots.get(0).getItem());
+        assertSame(this.menu.slots.get(1).getItem(), this.other.slots.get(26).getItem());
+
+        this.player.click(this.menu, 0, ClickType.PICKUP, new ItemStack(Items.EMERALD));
+
+        assertEquals(Arrays.asList(0), this.clicks);
+    }
+
+    @Test
+    void itemForUpdate_ShouldCopySharedStackOnce() {
+        ItemStack updated = this.menu.getItemForUpdate(0);
+        updated.setCount(5);
+
+        assertSame(updated, this.menu.getItemForUpdate(0));
+        assertEquals(1, this.other.slots.get(0).getItem().getCount());
+    }
+
+    @Test
+    void deltaSync_ShouldSendOnlyChangedSlots() {
+        this.menu.setItemAt(new ItemStack(Items.STONE), 3);
+        this.menu.getItemForUpdate(4).setCount(3);
+        this.menu.markSlotDirty(4);
+        // The first hotbar slot is the first slot after the 27 menu slots and 27 main inventory slots
+        this.player.getInventory().items.set(0, new ItemStack(Items.DIAMOND));
+
+        this.player.tick(2);
+
+        assertEquals(Arrays.asList(3, 4, 54), this.player.getSentSlots());
+        assertEquals(0, this.player.getContainerSyncs());
+    }
+}
@@ -0,0 +1,106 @@
+package dev.spaxter.lynxlib.unittest.menu;
+
+import dev.spaxter.lynxlib.menu.PageSource;
+import dev.spaxter.lynxlib.menu.PaginatedMenu;
+import dev.spaxter.lynxlib.task.TaskScheduler;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import net.minecraft.entity.player.PlayerInventory;
+import net.minecraft.inventory.container.ClickType;
+import net.minecraft.inventory.container.ContainerType;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraftforge.fml.event.server.FMLServerStartingEvent;
+import net.minecraftforge.fml.event.server.FMLServerStoppedEvent;
+import net.minecraftforge.fml.event.server.FMLServerStoppingEvent;
+
+class PaginatedMenuTests {
+    /* A chest of three rows shows 18 entries per page, with the page controls in slots 18 and 26 */
+    private static final int NEXT_SLOT = 26;
+
+    private TestPlayer player;
+
+    /**
+     * Paginated chest menu over 50 entries, each shown as a stack of its number plus one.
+     */
+    private static class NumberMenu extends PaginatedMenu<Integer> {
+        NumberMenu(PlayerInventory playerInventory) {
+            super(ContainerType.GENERIC_9x3, playerInventory, 1, 9, 3, new PageSource<Integer>() {
+                @Override
+                public int size() {
+                    return 50;
+                }
+
+                @Override
+                public List<Integer> getEntries(int offset, int limit) {
+                    List<Integer> entries = new ArrayList<>();
+                    for (int i = offset; i < Math.min(offset + limit, 50); i++) {
+                        entries.add(i);
+                    }
+                    return entries;
+                }
+            }, entry -> new ItemStack(Items.STONE, entry + 1));
+        }
+
+        @Override
+        public void closed() {
+        }
+    }
+
+    @BeforeEach
+    void startServer() {
+        this.player = new TestPlayer();
+        TaskScheduler.onServerStart(new FMLServerStartingEvent(this.player.getServer()));
+    }
+
+    @AfterEach
+    void stopServer() {
+        TaskScheduler.onServerStopping(new FMLServerStoppingEvent(this.player.getServer()));
+        TaskScheduler.onServerStopped(new FMLServerStoppedEvent(this.player.getServer()));
+    }
+
+    private NumberMenu open() {
+        return this.player.open(new NumberMenu(this.player.getInventory()));
+    }
+
+    @Test
+    void pageSwitch_ShouldSendContainerOnce() {
+        NumberMenu menu = this.open();
+        ItemStack nextButton = menu.slots.get(NEXT_SLOT).getItem().copy();
+
+        this.player.click(menu, NEXT_SLOT, ClickType.PICKUP, nextButton);
+        this.player.tick(1);
+
+        assertEquals(1, menu.getPage());
+        assertEquals(19, menu.slots.get(0).getItem().getCount());
+        assertEquals(1, this.player.getContainerSyncs());
+        assertTrue(this.player.getSentSlots().isEmpty());
+    }
+
+    @Test
+    void updatedEntrySlot_ShouldNotChangeCachedPage() {
+        NumberMenu menu = this.open();
+
+        menu.getItemForUpdate(0).setCount(64);
+        menu.setPage(1);
+        menu.setPage(0);
+
+        assertEquals(1, menu.slots.get(0).getItem().getCount());
+    }
+
+    @Test
+    void updatedPageButton_ShouldNotChangeButtonsOfOtherMenus() {
+        NumberMenu menu = this.open();
+        TestPlayer otherPlayer = new TestPlayer();
+        NumberMenu other = otherPlayer.open(new NumberMenu(otherPlayer.getInventory()));
+
+        menu.getItemForUpdate(NEXT_SLOT).setCount(2);
+
+        assertNotSame(menu.slots.get(NEXT_SLOT).getItem(), other.slots.get(NEXT_SLOT).getItem());
+        assertEquals(1, other.slots.get(NEXT_SLOT).getItem().getCount());
+    }
+}
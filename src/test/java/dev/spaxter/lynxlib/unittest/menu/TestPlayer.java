@@ -0,0 +1,154 @@
+package dev.spaxter.lynxlib.unittest.menu;
+
+import dev.spaxter.lynxlib.menu.MenuBase;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.entity.player.PlayerInventory;
+import net.minecraft.entity.player.ServerPlayerEntity;
+import net.minecraft.inventory.container.ClickType;
+import net.minecraft.inventory.container.ContainerType;
+import net.minecraft.item.ItemStack;
+import net.minecraft.network.IPacket;
+import net.minecraft.network.play.ServerPlayNetHandler;
+import net.minecraft.network.play.server.SSetSlotPacket;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.registry.Bootstrap;
+
+/**
+ * Mocked player that records the packets sent to it, on a server whose tick count only moves when a test advances
+ * it.
+ */
+class TestPlayer {
+    static {
+        Bootstrap.bootStrap();
+    }
+
+    private final ServerPlayerEntity player = mock(ServerPlayerEntity.class);
+    private final ServerPlayNetHandler connection = mock(ServerPlayNetHandler.class);
+    private final MinecraftServer server = mock(MinecraftServer.class);
+    private final PlayerInventory inventory;
+    private final List<IPacket<?>> packets = new ArrayList<>();
+    private int containerSyncs;
+    private int tick;
+
+    TestPlayer() {
+        UUID id = UUID.randomUUID();
+        this.inventory = new PlayerInventory(this.player);
+        setField(PlayerEntity.class, "inventory", this.inventory);
+        setField(ServerPlayerEntity.class, "server", this.server);
+        this.player.connection = this.connection;
+
+        when(this.server.getTickCount()).thenAnswer(invocation -> this.tick);
+        when(this.server.isSameThread()).thenReturn(true);
+        when(this.player.getUUID()).thenReturn(id);
+        doAnswer(invocation -> this.packets.add(invocation.getArgument(0))).when(this.connection).send(any());
+        doAnswer(invocation -> this.containerSyncs++).when(this.player).refreshContainer(any(), any());
+    }
+
+    private void setField(Class<?> owner, String name, Object value) {
+        try {
+            Field field = owner.getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(this.player, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    ServerPlayerEntity get() {
+        return this.player;
+    }
+
+    MinecraftServer getServer() {
+        return this.server;
+    }
+
+    PlayerInventory getInventory() {
+        return this.inventory;
+    }
+
+    /**
+     * Open a chest menu with the player's inventory, without counting the initial sync.
+     */
+    TestMenu open() {
+        return this.open(new TestMenu(this.inventory));
+    }
+
+    /**
+     * Open a menu created with the player's inventory, without counting the initial sync.
+     */
+    <M extends MenuBase> M open(M menu) {
+        this.player.containerMenu = menu;
+        menu.addSlotListener(this.player);
+        this.clearPackets();
+        return menu;
+    }
+
+    /**
+     * Finish server ticks, syncing the open menu at the end of each one like the player tick does. Clicks made after
+     * this arrive in the next tick, before its sync.
+     */
+    void tick(int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            this.player.containerMenu.broadcastChanges();
+            this.tick++;
+        }
+    }
+
+    /**
+     * Click a slot the way vanilla handles the click packet. A result that does not match the stack the client
+     * predicted marks the menu out of sync and resends the whole container, otherwise the menu is synced.
+     */
+    void click(MenuBase menu, int slot, ClickType clickType, ItemStack predicted) {
+        ItemStack result = menu.clicked(slot, 0, clickType, this.player);
+        if (ItemStack.matches(predicted, result)) {
+            menu.broadcastChanges();
+        } else {
+            menu.setSynched(this.player, false);
+            this.player.refreshContainer(menu, menu.getItems());
+        }
+    }
+
+    /**
+     * Get the slots of the slot packets sent to the player, {@code -1} standing for the cursor.
+     */
+    List<Integer> getSentSlots() {
+        return this.packets.stream()
+            .filter(packet -> packet instanceof SSetSlotPacket)
+            .map(packet -> ((SSetSlotPacket) packet).getSlot())
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the number of times the whole container was sent to the player.
+     */
+    int getContainerSyncs() {
+        return this.containerSyncs;
+    }
+
+    void clearPackets() {
+        this.packets.clear();
+        this.containerSyncs = 0;
+    }
+
+    /**
+     * Chest menu of three rows.
+     */
+    static class TestMenu extends MenuBase {
+        TestMenu(PlayerInventory playerInventory) {
+            super(ContainerType.GENERIC_9x3, playerInventory, 1, 9, 3);
+        }
+
+        @Override
+        public void closed() {
+        }
+    }
+}
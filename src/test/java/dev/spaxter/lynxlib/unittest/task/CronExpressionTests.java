@@ -0,0 +1,69 @@
+package dev.spaxter.lynxlib.unittest.task;
+
+import dev.spaxter.lynxlib.task.CronExpression;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+class CronExpressionTests {
+
+    private static long millis(String isoTime) {
+        return Instant.parse(isoTime).toEpochMilli();
+    }
+
+    private static long next(String expression, String after) {
+        return new CronExpression(expression, ZoneOffset.UTC).nextAfter(millis(after));
+    }
+
+    @Test
+    void dailyExpression_ShouldFireNextDayWhenTimeHasPassed() {
+        assertEquals(millis("2024-01-02T03:00:00Z"), next("0 3 * * *", "2024-01-01T05:00:00Z"));
+    }
+
+    @Test
+    void nextAfter_ShouldBeStrictlyAfterGivenTime() {
+        assertEquals(millis("2024-01-02T10:30:00Z"), next("30 10 * * *", "2024-01-01T10:30:00Z"));
+    }
+
+    @Test
+    void stepExpression_ShouldFireOnNextStep() {
+        assertEquals(millis("2024-01-01T10:15:00Z"), next("*/15 * * * *", "2024-01-01T10:07:12Z"));
+    }
+
+    @Test
+    void dayOfWeekName_ShouldFireOnThatDay() {
+        // 2024-01-07 is a Sunday
+        assertEquals(millis("2024-01-08T00:00:00Z"), next("0 0 * * MON", "2024-01-07T12:00:00Z"));
+        assertEquals(millis("2024-01-14T00:00:00Z"), next("0 0 * * 7", "2024-01-07T12:00:00Z"));
+    }
+
+    @Test
+    void restrictedDayOfMonthAndWeek_ShouldMatchEither() {
+        // The first Friday comes before the 13th
+        assertEquals(millis("2024-01-05T00:00:00Z"), next("0 0 13 * FRI", "2024-01-01T00:00:00Z"));
+    }
+
+    @Test
+    void dayOfMonthStartingWithStar_ShouldNotCountAsRestricted() {
+        // Like in Vixie cron, a step over "*" still has to match together with the day of the week
+        assertEquals(millis("2024-01-15T00:00:00Z"), next("0 0 */2 * MON", "2024-01-01T00:00:00Z"));
+    }
+
+    @Test
+    void macro_ShouldExpand() {
+        assertEquals(millis("2024-01-01T11:00:00Z"), next("@hourly", "2024-01-01T10:30:00Z"));
+    }
+
+    @Test
+    void impossibleDate_ShouldNeverMatch() {
+        assertEquals(-1, next("0 0 31 2 *", "2024-01-01T00:00:00Z"));
+    }
+
+    @Test
+    void invalidExpression_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> new CronExpression("60 * * * *"));
+        assertThrows(IllegalArgumentException.class, () -> new CronExpression("* * *"));
+        assertThrows(IllegalArgumentException.class, () -> new CronExpression("5-1 * * * *"));
+    }
+}
@@ -0,0 +1,105 @@
+package dev.spaxter.lynxlib.unittest.task;
+
+import dev.spaxter.lynxlib.task.RepeatMode;
+import dev.spaxter.lynxlib.task.TaskHandle;
+import dev.spaxter.lynxlib.task.TaskScheduler;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+class LoadSpreaderTests {
+    private TestServer server;
+    private final List<String> runs = new ArrayList<>();
+
+    @BeforeEach
+    void startServer() {
+        this.server = new TestServer();
+        this.server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        this.server.stop();
+        TaskScheduler.setLoadSpreading(0);
+    }
+
+    private TaskHandle repeat(String name, int periodTicks, int toleranceTicks) {
+        return TaskScheduler.repeatTask(this.server.get(), TestServer.seconds(periodTicks),
+            () -> this.runs.add(name + "@" + this.server.getTick()), UUID.randomUUID(), RepeatMode.FIXED_RATE, 0,
+            TestServer.seconds(toleranceTicks));
+    }
+
+    @Test
+    void tasksWithSamePeriod_ShouldStartOnLeastLoadedTicks() {
+        for (String name : Arrays.asList("a", "b", "c", "d")) {
+            this.repeat(name, 20, 2);
+        }
+
+        this.server.tick(22);
+
+        // Every tick of the window is taken once "d" comes, so it goes to the earliest one
+        assertEquals(Arrays.asList("a@20", "d@20", "b@21", "c@22"), this.runs);
+    }
+
+    @Test
+    void spreadFixedRateTask_ShouldKeepItsTick() {
+        this.repeat("a", 20, 4);
+        this.repeat("b", 20, 4);
+
+        this.server.tick(41);
+
+        assertEquals(Arrays.asList("a@20", "b@21", "a@40", "b@41"), this.runs);
+    }
+
+    @Test
+    void cancelledTask_ShouldFreeItsTick() {
+        this.repeat("a", 20, 4).cancel();
+        this.repeat("b", 20, 4);
+
+        this.server.tick(20);
+
+        assertEquals(Arrays.asList("b@20"), this.runs);
+    }
+
+    @Test
+    void defaultLoadSpreading_ShouldApplyToTasksWithoutTolerance() {
+        TaskScheduler.setLoadSpreading(TestServer.seconds(4));
+        for (String name : Arrays.asList("a", "b")) {
+            TaskScheduler.repeatTask(this.server.get(), 1, () -> this.runs.add(name + "@" + this.server.getTick()),
+                UUID.randomUUID());
+        }
+
+        this.server.tick(21);
+
+        assertEquals(Arrays.asList("a@20", "b@21"), this.runs);
+    }
+
+    @Test
+    void longPeriodTasks_ShouldBeSpreadOverSlotsOfSeveralTicks() {
+        // 2400 ticks are tracked in 1200 slots of two ticks each
+        this.repeat("a", 2400, 4);
+        this.repeat("b", 2400, 4);
+        this.repeat("c", 2400, 4);
+
+        this.server.tick(2404);
+
+        assertEquals(Arrays.asList("a@2400", "b@2402", "c@2404"), this.runs);
+    }
+
+    @Test
+    void longPeriodTasksWithDifferentPhases_ShouldNotBePushedBack() {
+        this.repeat("a", 2400, 4);
+        this.server.tick(1200);
+        // Due at tick 3600, half a period away from "a" even though 3600 and 2400 are both multiples of 1200
+        this.repeat("b", 2400, 4);
+
+        this.server.tick(2400);
+
+        assertEquals(Arrays.asList("a@2400", "b@3600"), this.runs);
+    }
+}
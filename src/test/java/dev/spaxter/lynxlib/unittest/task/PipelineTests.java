@@ -0,0 +1,98 @@
+package dev.spaxter.lynxlib.unittest.task;
+
+import dev.spaxter.lynxlib.task.Pipeline;
+import dev.spaxter.lynxlib.task.PipelineStage;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+class PipelineTests {
+    private TestServer server;
+
+    @BeforeEach
+    void startServer() {
+        this.server = new TestServer();
+        this.server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        this.server.stop();
+    }
+
+    @Test
+    void sharedStage_ShouldProcessItemsOfAllItsPipelinesInOneBatch() throws Exception {
+        PipelineStage<Integer, Integer> doubled = PipelineStage.main("double", value -> value * 2);
+        Pipeline<Integer, Integer> first = Pipeline.<Integer>builder("first").then(doubled).build();
+        Pipeline<Integer, String> second = Pipeline.<Integer>builder("second")
+            .then(doubled)
+            .main("describe", value -> "second:" + value)
+            .build();
+
+        CompletableFuture<Integer> firstResult = first.submit(1);
+        CompletableFuture<String> secondResult = second.submit(2);
+        this.server.tick(1);
+
+        assertEquals(2, (int) firstResult.get());
+        assertFalse(secondResult.isDone());
+        assertEquals(1, doubled.getBatchCount());
+        assertEquals(2, doubled.getLastBatchSize());
+
+        this.server.tick(1);
+        assertEquals("second:4", secondResult.get());
+    }
+
+    @Test
+    void stageWithoutQueuedItems_ShouldNotCountAPass() throws Exception {
+        // The item comes back to the stage during its own pass, which takes it along and leaves the next pass empty
+        PipelineStage<Integer, Integer> increment = PipelineStage.main("increment", value -> value + 1);
+        Pipeline<Integer, Integer> pipeline = Pipeline.<Integer>builder("twice")
+            .then(increment)
+            .then(increment)
+            .build();
+
+        CompletableFuture<Integer> result = pipeline.submit(0);
+        this.server.tick(2);
+
+        assertEquals(2, (int) result.get());
+        assertEquals(1, increment.getBatchCount());
+        assertEquals(2, increment.getLastBatchSize());
+        assertEquals(2, increment.getRunCount());
+    }
+
+    @Test
+    void failingStage_ShouldCompleteResultExceptionallyAndSkipLaterStages() {
+        IllegalStateException error = new IllegalStateException("failed");
+        PipelineStage<Integer, Integer> later = PipelineStage.main("later", value -> value);
+        Pipeline<Integer, Integer> pipeline = Pipeline.<Integer>builder("failing")
+            .<Integer>main("fail", value -> {
+                throw error;
+            })
+            .then(later)
+            .build();
+
+        CompletableFuture<Integer> result = pipeline.submit(1);
+        this.server.tick(2);
+
+        ExecutionException thrown = assertThrows(ExecutionException.class, result::get);
+        assertSame(error, thrown.getCause());
+        assertEquals(0, later.getRunCount());
+    }
+
+    @Test
+    void serverStop_ShouldCancelItemsWaitingForAStage() {
+        Pipeline<Integer, Integer> pipeline = Pipeline.<Integer>builder("stopped")
+            .main("never", value -> value)
+            .build();
+
+        CompletableFuture<Integer> result = pipeline.submit(1);
+        this.server.stop();
+
+        assertTrue(result.isCompletedExceptionally());
+        assertThrows(CancellationException.class, result::join);
+    }
+}
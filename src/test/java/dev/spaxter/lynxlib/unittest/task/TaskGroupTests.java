@@ -0,0 +1,160 @@
+package dev.spaxter.lynxlib.unittest.task;
+
+import dev.spaxter.lynxlib.task.TaskGroup;
+import dev.spaxter.lynxlib.task.TaskHandle;
+import dev.spaxter.lynxlib.task.TaskScheduler;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+class TaskGroupTests {
+    private TestServer server;
+    private TaskGroup group;
+    private final List<Integer> runs = new ArrayList<>();
+
+    @BeforeEach
+    void startServer() {
+        this.server = new TestServer();
+        this.server.start();
+        this.group = TaskScheduler.getGroup("arena");
+    }
+
+    @AfterEach
+    void stopServer() {
+        this.server.stop();
+    }
+
+    private TaskHandle schedule(int ticks) {
+        return TaskScheduler.scheduleTask(this.server.get(), TestServer.seconds(ticks),
+            () -> this.runs.add(this.server.getTick()));
+    }
+
+    @Test
+    void getGroup_ShouldReturnSameGroupForSameKey() {
+        assertSame(this.group, TaskScheduler.getGroup("arena"));
+        assertNotSame(this.group, TaskScheduler.getGroup("lobby"));
+    }
+
+    @Test
+    void finishedTask_ShouldLeaveItsGroup() {
+        TaskHandle handle = this.schedule(10);
+        this.group.add(handle);
+        assertEquals(1, this.group.size());
+        assertSame(this.group, handle.getGroup());
+
+        this.server.tick(10);
+
+        assertEquals(0, this.group.size());
+        assertNull(handle.getGroup());
+    }
+
+    @Test
+    void pausedGroup_ShouldHoldBackDueTasksUntilResumed() {
+        this.group.add(this.schedule(10));
+        this.group.pause();
+
+        this.server.tick(30);
+        assertTrue(this.runs.isEmpty());
+        assertEquals(1, this.group.size());
+
+        this.group.resume();
+        this.server.tick(1);
+        assertEquals(Arrays.asList(31), this.runs);
+        assertEquals(0, this.group.size());
+    }
+
+    @Test
+    void resumedRepeatingTask_ShouldContinueOnItsSchedule() {
+        this.group.add(TaskScheduler.repeatTask(this.server.get(), 1, () -> this.runs.add(this.server.getTick()),
+            UUID.randomUUID()));
+        this.group.pause();
+        this.server.tick(70);
+
+        this.group.resume();
+        this.server.tick(10);
+
+        // Runs once for the time it was paused, then again on the tick of its original schedule
+        assertEquals(Arrays.asList(71, 80), this.runs);
+    }
+
+    @Test
+    void cancelAll_ShouldCancelOnlyTasksOfTheGroup() {
+        TaskHandle parked = this.schedule(5);
+        TaskHandle waiting = this.schedule(20);
+        this.group.add(parked);
+        this.group.add(waiting);
+        this.schedule(20);
+        this.group.pause();
+        this.server.tick(10);
+
+        assertEquals(2, this.group.cancelAll());
+        this.group.resume();
+        this.server.tick(20);
+
+        assertTrue(parked.isCancelled());
+        assertTrue(waiting.isCancelled());
+        assertEquals(Arrays.asList(20), this.runs);
+        assertEquals(0, this.group.size());
+    }
+
+    /**
+     * Collect garbage until the referenced object is gone, or give up after a while.
+     */
+    private static boolean isCollected(WeakReference<?> reference) throws InterruptedException {
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        return reference.get() == null;
+    }
+
+    @Test
+    void groupWithoutTasks_ShouldBeDroppedOnceNobodyHoldsIt() throws InterruptedException {
+        TaskScheduler.getGroup("player").add(this.schedule(10));
+        WeakReference<TaskGroup> reference = new WeakReference<>(TaskScheduler.getGroup("player"));
+
+        this.server.tick(5);
+        assertFalse(isCollected(reference));
+        this.server.tick(5);
+        assertTrue(isCollected(reference));
+    }
+
+    @Test
+    void pausedGroup_ShouldBeKeptWithoutTasks() throws InterruptedException {
+        TaskScheduler.getGroup("player").pause();
+        WeakReference<TaskGroup> reference = new WeakReference<>(TaskScheduler.getGroup("player"));
+
+        assertFalse(isCollected(reference));
+        assertTrue(TaskScheduler.getGroup("player").isPaused());
+    }
+
+    @Test
+    void addingTaskToAnotherGroup_ShouldMoveIt() {
+        TaskGroup lobby = TaskScheduler.getGroup("lobby");
+        TaskHandle handle = this.schedule(10);
+        this.group.add(handle);
+
+        lobby.add(handle);
+
+        assertEquals(0, this.group.size());
+        assertEquals(1, lobby.size());
+        assertSame(lobby, handle.getGroup());
+    }
+
+    @Test
+    void removeGroup_ShouldCancelTasksAndForgetGroup() {
+        this.group.add(this.schedule(10));
+        this.group.add(this.schedule(20));
+
+        assertEquals(2, TaskScheduler.removeGroup("arena"));
+        assertNotSame(this.group, TaskScheduler.getGroup("arena"));
+        this.server.tick(20);
+        assertTrue(this.runs.isEmpty());
+    }
+}
@@ -0,0 +1,135 @@
+package dev.spaxter.lynxlib.unittest.task;
+
+import dev.spaxter.lynxlib.task.TaskScheduler;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class TaskJournalTests {
+    private static final String TYPE = "journal-test";
+
+    @TempDir
+    Path directory;
+
+    private Path journal;
+    private TestServer server;
+    private final List<String> runs = new ArrayList<>();
+
+    @BeforeEach
+    void startServer() {
+        this.journal = this.directory.resolve("tasks.jsonl");
+        TaskScheduler.registerPersistentTaskType(TYPE, this.runs::add);
+        TaskScheduler.enablePersistence(this.journal);
+        this.restart();
+    }
+
+    @AfterEach
+    void stopServer() {
+        this.server.stop();
+        TaskScheduler.enablePersistence(null);
+    }
+
+    /**
+     * Stop the running server, if any, and start a new one reading the journal.
+     */
+    private void restart() {
+        if (this.server != null) {
+            this.server.stop();
+        }
+        this.server = new TestServer();
+        this.server.start();
+    }
+
+    private static String record(String key, long fireAt) {
+        return "{\"op\":\"add\",\"key\":\"" + key + "\",\"type\":\"" + TYPE + "\",\"payload\":\"" + key
+            + "\",\"fireAt\":" + fireAt + "}";
+    }
+
+    private static Instant inAnHour() {
+        return Instant.now().plusSeconds(3600);
+    }
+
+    @Test
+    void pendingTask_ShouldBeScheduledAgainAfterRestart() {
+        TaskScheduler.schedulePersistent(TYPE, "pending", "payload", inAnHour());
+
+        this.restart();
+
+        assertTrue(TaskScheduler.cancelPersistent("pending"));
+        assertTrue(this.runs.isEmpty());
+    }
+
+    @Test
+    void cancelledTask_ShouldNotBeScheduledAgainAfterRestart() {
+        TaskScheduler.schedulePersistent(TYPE, "cancelled", "payload", inAnHour());
+        assertTrue(TaskScheduler.cancelPersistent("cancelled"));
+
+        this.restart();
+
+        assertFalse(TaskScheduler.cancelPersistent("cancelled"));
+    }
+
+    @Test
+    void replacedTask_ShouldOnlyKeepLatestPayload() {
+        TaskScheduler.schedulePersistent(TYPE, "replaced", "first", Instant.now());
+        TaskScheduler.schedulePersistent(TYPE, "replaced", "second", Instant.now());
+
+        this.server.tick(1);
+
+        assertEquals(Arrays.asList("second"), this.runs);
+    }
+
+    @Test
+    void taskDueWhileServerWasDown_ShouldRunOnFirstTick() throws IOException {
+        this.server.stop();
+        Files.write(this.journal, Arrays.asList(record("overdue", 1)), StandardCharsets.UTF_8);
+
+        this.restart();
+        this.server.tick(1);
+
+        assertEquals(Arrays.asList("overdue"), this.runs);
+    }
+
+    @Test
+    void damagedLine_ShouldBeSkippedAndRemovedFromJournal() throws IOException {
+        this.server.stop();
+        String damaged = record("damaged", 1).substring(0, 30);
+        long fireAt = inAnHour().toEpochMilli();
+        Files.write(this.journal, Arrays.asList(record("before", fireAt), damaged, record("after", fireAt)),
+            StandardCharsets.UTF_8);
+
+        this.restart();
+
+        assertTrue(TaskScheduler.cancelPersistent("before"));
+        assertTrue(TaskScheduler.cancelPersistent("after"));
+        this.server.stop();
+        List<String> lines = Files.readAllLines(this.journal, StandardCharsets.UTF_8);
+        assertFalse(lines.contains(damaged));
+    }
+
+    @Test
+    void journalOfMostlyFinishedTasks_ShouldBeCompacted() throws IOException {
+        TaskScheduler.schedulePersistent(TYPE, "kept", "payload", inAnHour());
+        for (int i = 0; i < 600; i++) {
+            TaskScheduler.schedulePersistent(TYPE, "task-" + i, "payload", inAnHour());
+            TaskScheduler.cancelPersistent("task-" + i);
+        }
+
+        this.restart();
+
+        // 1201 records were written, compaction drops the ones of cancelled tasks
+        assertTrue(Files.readAllLines(this.journal, StandardCharsets.UTF_8).size() < 1024);
+        assertTrue(TaskScheduler.cancelPersistent("kept"));
+        assertFalse(TaskScheduler.cancelPersistent("task-0"));
+    }
+}
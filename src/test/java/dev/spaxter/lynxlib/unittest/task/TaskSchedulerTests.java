@@ -0,0 +1,302 @@
+package dev.spaxter.lynxlib.unittest.task;
+
+import dev.spaxter.lynxlib.task.RepeatMode;
+import dev.spaxter.lynxlib.task.TaskHandle;
+import dev.spaxter.lynxlib.task.TaskScheduler;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+class TaskSchedulerTests {
+    private TestServer server;
+    private final List<Integer> runs = new ArrayList<>();
+
+    @BeforeEach
+    void startServer() {
+        this.server = new TestServer();
+        this.server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        this.server.stop();
+        TaskScheduler.setTickBudget(0);
+    }
+
+    private Runnable recordTick() {
+        return () -> this.runs.add(this.server.getTick());
+    }
+
+    /**
+     * Task recording its tick that takes long enough to use up a budget of one nanosecond.
+     */
+    private Runnable slowTask(String name, List<String> order) {
+        return () -> {
+            long start = System.nanoTime();
+            while (System.nanoTime() == start) {
+                Thread.onSpinWait();
+            }
+            order.add(name + "@" + this.server.getTick());
+        };
+    }
+
+    private TaskHandle schedule(int ticks, UUID id) {
+        return TaskScheduler.scheduleTask(this.server.get(), TestServer.seconds(ticks), this.recordTick(), id);
+    }
+
+    @Test
+    void tasksAtWheelLevelBoundaries_ShouldRunOnTheTickTheyAreDue() {
+        // Each level of the wheel covers 6 more bits of the deadline, so these cross one, two and three cascades
+        List<Integer> delays = Arrays.asList(1, 63, 64, 65, 4095, 4096, 4097, 262143, 262144, 262145);
+        for (int delay : delays) {
+            TaskScheduler.scheduleTask(this.server.get(), TestServer.seconds(delay), this.recordTick());
+        }
+
+        this.server.tick(262145);
+
+        assertEquals(delays, this.runs);
+        assertEquals(0, TaskScheduler.getPendingTaskCount());
+    }
+
+    @Test
+    void taskBeyondWheelRange_ShouldRunFromOverflowWhenDue() {
+        // 20 million ticks is more than the 2^24 ticks the top level of the wheel reaches
+        TaskScheduler.scheduleTask(this.server.get(), 1_000_000f, this.recordTick());
+
+        this.server.skip(20_000_000 - 2);
+        this.server.tick(1);
+        assertTrue(this.runs.isEmpty());
+        assertEquals(1, TaskScheduler.getPendingTaskCount());
+
+        this.server.tick(1);
+        assertEquals(Arrays.asList(20_000_000), this.runs);
+    }
+
+    @Test
+    void skippedTicks_ShouldRunOverdueTasksOnceInDeadlineOrder() {
+        List<Integer> order = new ArrayList<>();
+        TaskScheduler.scheduleTask(this.server.get(), TestServer.seconds(500), () -> order.add(500));
+        TaskScheduler.scheduleTask(this.server.get(), TestServer.seconds(10), () -> order.add(10));
+        TaskScheduler.scheduleTask(this.server.get(), TestServer.seconds(70), () -> order.add(70));
+
+        this.server.skip(1000);
+        this.server.tick(2);
+
+        assertEquals(Arrays.asList(10, 70, 500), order);
+    }
+
+    @Test
+    void tasksWithSameId_ShouldStayScheduledUntilTheLastOneRuns() {
+        UUID id = UUID.randomUUID();
+        TaskHandle first = this.schedule(20, id);
+        TaskHandle second = this.schedule(40, id);
+        assertSame(second, TaskScheduler.getTask(id));
+
+        this.server.tick(20);
+        assertTrue(first.isDone());
+        assertSame(second, TaskScheduler.getTask(id));
+        assertTrue(TaskScheduler.isScheduled(id));
+
+        this.server.tick(20);
+        assertTrue(second.isDone());
+        assertNull(TaskScheduler.getTask(id));
+        assertFalse(TaskScheduler.isScheduled(id));
+    }
+
+    @Test
+    void unScheduleTask_ShouldCancelEveryTaskWithTheId() {
+        UUID id = UUID.randomUUID();
+        List<TaskHandle> handles = new ArrayList<>();
+        for (int delay = 10; delay <= 30; delay += 10) {
+            handles.add(this.schedule(delay, id));
+        }
+        TaskScheduler.scheduleTask(this.server.get(), TestServer.seconds(20), this.recordTick());
+
+        TaskScheduler.unScheduleTask(id);
+
+        handles.forEach(handle -> assertTrue(handle.isCancelled()));
+        assertNull(TaskScheduler.getTask(id));
+        assertEquals(1, TaskScheduler.getPendingTaskCount());
+        this.server.tick(30);
+        assertEquals(Arrays.asList(20), this.runs);
+    }
+
+    @Test
+    void cancellingTaskInIdChain_ShouldKeepTheOtherTasksFindable() {
+        UUID id = UUID.randomUUID();
+        TaskHandle first = this.schedule(10, id);
+        TaskHandle second = this.schedule(20, id);
+        TaskHandle third = this.schedule(30, id);
+
+        assertTrue(second.cancel());
+        assertSame(third, TaskScheduler.getTask(id));
+        assertTrue(third.cancel());
+        assertSame(first, TaskScheduler.getTask(id));
+        assertTrue(TaskScheduler.isScheduled(id));
+        assertFalse(second.cancel());
+    }
+
+    @Test
+    void unScheduleTaskOffServerThread_ShouldCancelOnNextTick() {
+        UUID id = UUID.randomUUID();
+        TaskHandle handle = this.schedule(2, id);
+
+        this.server.setServerThread(false);
+        TaskScheduler.unScheduleTask(id);
+        this.server.setServerThread(true);
+        assertTrue(handle.isPending());
+
+        this.server.tick(2);
+        assertTrue(handle.isCancelled());
+        assertNull(TaskScheduler.getTask(id));
+        assertTrue(this.runs.isEmpty());
+    }
+
+    @Test
+    void exhaustedTickBudget_ShouldDeferRemainingDueTasksToNextTick() {
+        List<String> order = new ArrayList<>();
+        TaskScheduler.setTickBudget(1);
+        for (String name : Arrays.asList("a", "b", "c")) {
+            TaskScheduler.scheduleTask(this.server.get(), TestServer.seconds(1), this.slowTask(name, order));
+        }
+        long deferredBefore = TaskScheduler.getTotalDeferredTasks();
+
+        this.server.tick(1);
+        assertEquals(Arrays.asList("a@1"), order);
+        assertEquals(2, TaskScheduler.getDeferredTaskCount());
+        assertEquals(2, TaskScheduler.getPendingTaskCount());
+
+        this.server.tick(2);
+        assertEquals(Arrays.asList("a@1", "b@2", "c@3"), order);
+        assertEquals(0, TaskScheduler.getDeferredTaskCount());
+        assertEquals(3, TaskScheduler.getTotalDeferredTasks() - deferredBefore);
+    }
+
+    @Test
+    void deferredTasks_ShouldRunBeforeTasksThatBecomeDueLater() {
+        List<String> order = new ArrayList<>();
+        TaskScheduler.setTickBudget(1);
+        TaskScheduler.scheduleTask(this.server.get(), TestServer.seconds(1), this.slowTask("a", order));
+        TaskScheduler.scheduleTask(this.server.get(), TestServer.seconds(1), this.slowTask("b", order));
+        TaskScheduler.scheduleTask(this.server.get(), TestServer.seconds(2), this.slowTask("c", order));
+
+        this.server.tick(3);
+
+        assertEquals(Arrays.asList("a@1", "b@2", "c@3"), order);
+    }
+
+    @Test
+    void noTickBudget_ShouldRunAllDueTasksInOneTick() {
+        List<String> order = new ArrayList<>();
+        for (String name : Arrays.asList("a", "b", "c")) {
+            TaskScheduler.scheduleTask(this.server.get(), TestServer.seconds(1), this.slowTask(name, order));
+        }
+
+        this.server.tick(1);
+
+        assertEquals(Arrays.asList("a@1", "b@1", "c@1"), order);
+        assertEquals(0, TaskScheduler.getDeferredTaskCount());
+    }
+
+    @Test
+    void mainThreadTaskQueuedBeforeStop_ShouldRunWhileServerStops() {
+        CompletableFuture<Integer> loaded = new CompletableFuture<>();
+        CompletableFuture<Integer> applied = loaded.thenApplyAsync(value -> value + 1, TaskScheduler.mainThread());
+        loaded.complete(1);
+        assertFalse(applied.isDone());
+
+        this.server.beginStop();
+
+        assertEquals(2, (int) applied.join());
+    }
+
+    @Test
+    void mainThreadTaskAfterServerStopping_ShouldCompleteExceptionally() {
+        this.server.beginStop();
+
+        CompletableFuture<Integer> applied = CompletableFuture.completedFuture(1)
+            .thenApplyAsync(value -> value + 1, TaskScheduler.mainThread());
+
+        assertTrue(applied.isCompletedExceptionally());
+        CompletionException thrown = assertThrows(CompletionException.class, applied::join);
+        assertTrue(thrown.getCause() instanceof RejectedExecutionException);
+    }
+
+    @Test
+    void asyncTaskPendingAtStop_ShouldBeCancelled() {
+        CompletableFuture<Integer> result = TaskScheduler.scheduleAsyncTask(this.server.get(), 10, () -> 1);
+
+        this.server.stop();
+
+        assertThrows(CancellationException.class, result::join);
+    }
+
+    @Test
+    void mainThreadExecutor_ShouldTakeTasksAgainAfterRestart() {
+        this.server.stop();
+        this.server.start();
+
+        CompletableFuture<Integer> applied = CompletableFuture.completedFuture(1)
+            .thenApplyAsync(value -> value + 1, TaskScheduler.mainThread());
+        this.server.tick(1);
+
+        assertEquals(2, (int) applied.join());
+    }
+
+    /**
+     * Run a task repeating every 20 ticks through a lag spike that skips from tick 20 to tick 120.
+     */
+    private void repeatThroughLagSpike(RepeatMode mode, int maxCatchUp) {
+        TaskScheduler.repeatTask(this.server.get(), 1, this.recordTick(), UUID.randomUUID(), mode, maxCatchUp);
+        this.server.tick(20);
+        this.server.skip(100);
+        this.server.tick(30);
+    }
+
+    @Test
+    void fixedRateTask_ShouldCatchUpAtMostMaxCatchUpMissedRuns() {
+        this.repeatThroughLagSpike(RepeatMode.FIXED_RATE, 2);
+
+        // Late run for tick 40, two catch-up runs, then back on the ticks of the original schedule
+        assertEquals(Arrays.asList(20, 121, 122, 123, 140), this.runs);
+    }
+
+    @Test
+    void fixedRateTaskWithoutCatchUp_ShouldSkipMissedRuns() {
+        this.repeatThroughLagSpike(RepeatMode.FIXED_RATE, 0);
+
+        assertEquals(Arrays.asList(20, 121, 140), this.runs);
+    }
+
+    @Test
+    void fixedDelayTask_ShouldRunAPeriodAfterItsLastRun() {
+        this.repeatThroughLagSpike(RepeatMode.FIXED_DELAY, 2);
+
+        assertEquals(Arrays.asList(20, 121, 141), this.runs);
+    }
+
+    @Test
+    void repeatingTask_ShouldStayOneEntryUntilCancelled() {
+        TaskHandle handle = TaskScheduler.repeatTask(this.server.get(), TestServer.seconds(5), this.recordTick(),
+            UUID.randomUUID());
+
+        this.server.tick(20);
+        assertEquals(Arrays.asList(5, 10, 15, 20), this.runs);
+        assertEquals(1, TaskScheduler.getPendingTaskCount());
+        assertTrue(handle.isPending());
+
+        assertTrue(handle.cancel());
+        this.server.tick(20);
+        assertEquals(4, this.runs.size());
+        assertEquals(0, TaskScheduler.getPendingTaskCount());
+    }
+}
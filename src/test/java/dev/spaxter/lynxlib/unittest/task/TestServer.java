@@ -0,0 +1,79 @@
+package dev.spaxter.lynxlib.unittest.task;
+
+import dev.spaxter.lynxlib.task.TaskScheduler;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import net.minecraft.server.MinecraftServer;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.fml.event.server.FMLServerStartingEvent;
+import net.minecraftforge.fml.event.server.FMLServerStoppedEvent;
+import net.minecraftforge.fml.event.server.FMLServerStoppingEvent;
+
+/**
+ * Mocked server driving the {@link TaskScheduler}, with a tick count that only moves when a test advances it.
+ */
+class TestServer {
+    private final MinecraftServer server = mock(MinecraftServer.class);
+    private int tick;
+    private boolean serverThread = true;
+
+    TestServer() {
+        when(this.server.getTickCount()).thenAnswer(invocation -> this.tick);
+        when(this.server.isSameThread()).thenAnswer(invocation -> this.serverThread);
+    }
+
+    MinecraftServer get() {
+        return this.server;
+    }
+
+    int getTick() {
+        return this.tick;
+    }
+
+    void start() {
+        TaskScheduler.onServerStart(new FMLServerStartingEvent(this.server));
+    }
+
+    void stop() {
+        this.beginStop();
+        TaskScheduler.onServerStopped(new FMLServerStoppedEvent(this.server));
+    }
+
+    /**
+     * Fire only the first of the stop events, while the world would still be loaded.
+     */
+    void beginStop() {
+        TaskScheduler.onServerStopping(new FMLServerStoppingEvent(this.server));
+    }
+
+    /**
+     * Run server ticks one after the other.
+     */
+    void tick(int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            this.tick++;
+            TaskScheduler.onTick(new TickEvent.ServerTickEvent(TickEvent.Phase.END));
+        }
+    }
+
+    /**
+     * Move the tick count forward without running the ticks in between, like a lag spike does.
+     */
+    void skip(int ticks) {
+        this.tick += ticks;
+    }
+
+    /**
+     * Make the scheduler believe it is called from another thread than the server thread.
+     */
+    void setServerThread(boolean serverThread) {
+        this.serverThread = serverThread;
+    }
+
+    /**
+     * Convert ticks to the delay in seconds the scheduler takes.
+     */
+    static float seconds(int ticks) {
+        return ticks / 20f;
+    }
+}
@@ -0,0 +1,135 @@
+package dev.spaxter.lynxlib.unittest.task;
+
+import dev.spaxter.lynxlib.task.RepeatMode;
+import dev.spaxter.lynxlib.task.TaskHandle;
+import dev.spaxter.lynxlib.task.TaskScheduler;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+class WallClockTaskTests {
+    private TestServer server;
+    private final List<String> runs = new ArrayList<>();
+
+    @BeforeEach
+    void startServer() {
+        this.server = new TestServer();
+        this.server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        this.server.stop();
+    }
+
+    private Runnable record(String name) {
+        return () -> this.runs.add(name);
+    }
+
+    private static Instant secondsAgo(int seconds) {
+        return Instant.now().minusSeconds(seconds);
+    }
+
+    @Test
+    void overdueWallClockTasks_ShouldRunOnNextTickInTimeOrder() {
+        TaskScheduler.scheduleAt(secondsAgo(1), this.record("c"));
+        TaskScheduler.scheduleAt(secondsAgo(3), this.record("a"));
+        TaskScheduler.scheduleAt(secondsAgo(2), this.record("b"));
+
+        this.server.tick(1);
+
+        assertEquals(Arrays.asList("a", "b", "c"), this.runs);
+        assertEquals(0, TaskScheduler.getPendingTaskCount());
+    }
+
+    @Test
+    void cancelledWallClockTasks_ShouldLeaveThePendingCountRightAway() {
+        Instant inAnHour = Instant.now().plusSeconds(3600);
+        List<TaskHandle> handles = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            handles.add(TaskScheduler.scheduleAt(inAnHour.plusSeconds(i), this.record("late")));
+        }
+        TaskScheduler.scheduleAt(secondsAgo(1), this.record("due"));
+
+        assertTrue(handles.get(2).cancel());
+        assertTrue(handles.get(0).cancel());
+        assertEquals(4, TaskScheduler.getPendingTaskCount());
+
+        this.server.tick(1);
+        assertEquals(Arrays.asList("due"), this.runs);
+        assertEquals(3, TaskScheduler.getPendingTaskCount());
+    }
+
+    @Test
+    void wallClockTaskCancelledOffServerThread_ShouldBeRemovedOnNextTick() {
+        TaskHandle handle = TaskScheduler.scheduleAt(Instant.now().plusSeconds(3600), this.record("late"));
+
+        this.server.setServerThread(false);
+        assertTrue(handle.cancel());
+        this.server.setServerThread(true);
+        this.server.tick(1);
+
+        assertEquals(0, TaskScheduler.getPendingTaskCount());
+        assertFalse(TaskScheduler.isScheduled(handle.getId()));
+    }
+
+    @Test
+    void cronTask_ShouldStayOneEntryUntilCancelled() {
+        TaskHandle handle = TaskScheduler.scheduleCron("* * * * *", this.record("cron"));
+        assertEquals(1, TaskScheduler.getPendingTaskCount());
+
+        assertTrue(handle.cancel());
+        assertEquals(0, TaskScheduler.getPendingTaskCount());
+    }
+
+    @Test
+    void realTimeTask_ShouldRunOnceItsDelayHasPassedWhateverTheTickCount() throws InterruptedException {
+        TaskScheduler.scheduleRealTime(0.05f, this.record("real-time"));
+
+        // Far more ticks than 50 milliseconds make, but no real time has passed
+        this.server.tick(100);
+        assertTrue(this.runs.isEmpty());
+
+        Thread.sleep(60);
+        this.server.tick(1);
+        assertEquals(Arrays.asList("real-time"), this.runs);
+        assertEquals(0, TaskScheduler.getPendingTaskCount());
+    }
+
+    @Test
+    void repeatingRealTimeTask_ShouldRunAgainAfterItsPeriod() throws InterruptedException {
+        TaskHandle handle = TaskScheduler.repeatRealTime(0.02f, this.record("repeat"), UUID.randomUUID(),
+            RepeatMode.FIXED_DELAY, 0);
+
+        for (int run = 1; run <= 2; run++) {
+            Thread.sleep(30);
+            this.server.tick(1);
+            assertEquals(run, this.runs.size());
+            assertEquals(1, TaskScheduler.getPendingTaskCount());
+        }
+
+        assertTrue(handle.cancel());
+        assertEquals(0, TaskScheduler.getPendingTaskCount());
+    }
+
+    @Test
+    void repeatingTaskCancellingItself_ShouldNotBePutBack() {
+        TaskHandle[] handle = new TaskHandle[1];
+        handle[0] = TaskScheduler.repeatTask(this.server.get(), TestServer.seconds(5), () -> {
+            this.runs.add("repeat");
+            handle[0].cancel();
+        }, UUID.randomUUID());
+
+        this.server.tick(5);
+
+        assertEquals(Arrays.asList("repeat"), this.runs);
+        assertEquals(0, TaskScheduler.getPendingTaskCount());
+        assertTrue(handle[0].isCancelled());
+    }
+}